@@ -0,0 +1,134 @@
+package app;
+
+import controller.BookController;
+import controller.LoanController;
+import controller.MemberController;
+import config.DatabaseConfig;
+import dao.BookDAO;
+import dao.BookDAOJDBC;
+import dao.CachingBookDAO;
+import dao.InstrumentedDAO;
+import dao.LoanDAO;
+import dao.LoanDAOJDBC;
+import dao.MemberDAO;
+import dao.MemberDAOJDBC;
+import service.BookService;
+import service.LoanService;
+import service.MemberService;
+import service.OverdueSweeper;
+
+// Builds the application's object graph once and hands out the same instances to everyone
+// Each DAO, the book cache, each service and each controller exists once per application, wired
+// explicitly through constructors; everything is created the first time it is asked for, so components
+// a run never uses (the controllers when nobody sits at the menu, for example) cost nothing
+public class ApplicationContext {
+    // DAOs (timed by InstrumentedDAO)
+    private CachingBookDAO bookCache;
+    private MemberDAO memberDAO;
+    private LoanDAO loanDAO;
+
+    // Services
+    private BookService bookService;
+    private MemberService memberService;
+    private LoanService loanService;
+    private OverdueSweeper overdueSweeper;
+
+    // Controllers
+    private BookController bookController;
+    private MemberController memberController;
+    private LoanController loanController;
+
+    // Book access always goes through the cache, so nothing can change a book behind its back
+    public synchronized BookDAO getBookDAO() {
+        return getBookCache();
+    }
+
+    // The single book cache in front of the database (sized by cache.books.maxSize)
+    public synchronized CachingBookDAO getBookCache() {
+        if (bookCache == null) {
+            bookCache = new CachingBookDAO(InstrumentedDAO.wrap(BookDAO.class, new BookDAOJDBC()),
+                    DatabaseConfig.getIntSetting("cache.books.maxSize", 10_000));
+        }
+        return bookCache;
+    }
+
+    public synchronized MemberDAO getMemberDAO() {
+        if (memberDAO == null) {
+            memberDAO = InstrumentedDAO.wrap(MemberDAO.class, new MemberDAOJDBC());
+        }
+        return memberDAO;
+    }
+
+    public synchronized LoanDAO getLoanDAO() {
+        if (loanDAO == null) {
+            loanDAO = InstrumentedDAO.wrap(LoanDAO.class, new LoanDAOJDBC());
+        }
+        return loanDAO;
+    }
+
+    public synchronized BookService getBookService() {
+        if (bookService == null) {
+            bookService = new BookService(getBookCache());
+        }
+        return bookService;
+    }
+
+    public synchronized MemberService getMemberService() {
+        if (memberService == null) {
+            memberService = new MemberService(getMemberDAO(), getLoanDAO());
+        }
+        return memberService;
+    }
+
+    public synchronized LoanService getLoanService() {
+        if (loanService == null) {
+            loanService = new LoanService(getLoanDAO(), getBookService(), getMemberService());
+        }
+        return loanService;
+    }
+
+    public synchronized OverdueSweeper getOverdueSweeper() {
+        if (overdueSweeper == null) {
+            overdueSweeper = new OverdueSweeper(getLoanService());
+        }
+        return overdueSweeper;
+    }
+
+    public synchronized BookController getBookController() {
+        if (bookController == null) {
+            bookController = new BookController(getBookService());
+        }
+        return bookController;
+    }
+
+    public synchronized MemberController getMemberController() {
+        if (memberController == null) {
+            memberController = new MemberController(getMemberService());
+        }
+        return memberController;
+    }
+
+    public synchronized LoanController getLoanController() {
+        if (loanController == null) {
+            loanController = new LoanController(getLoanService());
+        }
+        return loanController;
+    }
+
+    // Starts the background work that keeps the services' indexes, filters and counters up to date
+    public void startBackgroundTasks() {
+        // Load the book search index while the user finds their way through the menu
+        getBookService().startSearchIndexBuild();
+        // Load existing ISBNs and ID numbers so registrations can skip most uniqueness queries
+        getBookService().startIsbnFilterLoad();
+        getMemberService().startIdNumberFilterLoad();
+        // Warm the member status cache that lets checkouts refuse inactive members without a query
+        getMemberService().startStatusCachePreload();
+        // Check the members' active-loan counters now and then periodically
+        getLoanService().startActiveLoanReconciliation();
+        // Index the loans still out by due date
+        getLoanService().startDueDateIndexLoad();
+        // Mark expired loans OVERDUE now and after every midnight
+        getOverdueSweeper().start();
+    }
+}
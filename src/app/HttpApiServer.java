@@ -0,0 +1,405 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import config.DatabaseConfig;
+import domain.Book;
+import domain.Loan;
+import domain.Member;
+import domain.ReturnOutcome;
+import exceptions.BusinessException;
+import exceptions.NotFoundException;
+import exceptions.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import service.BookService;
+import service.DueDateIndex;
+import service.LoanService;
+import service.MemberService;
+import util.AsyncExecutor;
+import util.JsonUtil;
+
+// Headless HTTP/JSON front end over the services, so every circulation desk and kiosk can share one JVM
+// (and one connection pool) instead of running its own copy of the Swing application
+// Built on the JDK's HttpServer; each request runs on its own virtual thread. Request bodies are size-limited
+// and a semaphore bounds the requests being worked on: when it stays full for api.queueTimeoutMs the client
+// gets 503 with Retry-After instead of piling up behind a pool that is already saturated
+//
+// GET  /api/health
+// GET  /api/books?title=... | ?author=... | ?isbn=... | ?afterTitle=&afterId=&limit=  (one page of the catalog)
+// GET  /api/members?idNumber=... | ?afterFirstName=&afterLastName=&afterId=&limit=
+// GET  /api/loans?memberId=... | ?status=overdue | ?dueWithinDays=N | ?afterDueDate=&afterId=&limit=
+// POST /api/loans    {"memberId": 1, "bookIds": [10, 11]}   checkout (one or more books, all or nothing)
+// POST /api/returns  {"loanIds": [5, 6]}                    returns, with a per-loan outcome
+public class HttpApiServer {
+    private static final Logger logger = Logger.getLogger(HttpApiServer.class.getName());
+    // Page size when the client does not ask for one (the services cap it at 500)
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final BookService bookService;
+    private final MemberService memberService;
+    private final LoanService loanService;
+    private final HttpServer server;
+    private final Semaphore permits;
+    private final int maxRequestBytes;
+    private final long queueTimeoutMillis;
+
+    public HttpApiServer(ApplicationContext context, int port) throws IOException {
+        this.bookService = context.getBookService();
+        this.memberService = context.getMemberService();
+        this.loanService = context.getLoanService();
+        // One request per pooled connection unless configured otherwise
+        int poolSize = DatabaseConfig.getIntSetting("pool.maxSize", 10);
+        this.permits = new Semaphore(Math.max(1, DatabaseConfig.getIntSetting("api.maxConcurrentRequests", poolSize)));
+        this.maxRequestBytes = Math.max(1024, DatabaseConfig.getIntSetting("api.maxRequestBytes", 65_536));
+        this.queueTimeoutMillis = Math.max(0, DatabaseConfig.getLongSetting("api.queueTimeoutMs", 200L));
+
+        this.server = HttpServer.create(new InetSocketAddress(port), DatabaseConfig.getIntSetting("api.backlog", 256));
+        server.createContext("/api/", this::handle);
+        server.setExecutor(AsyncExecutor.executor());
+    }
+
+    public void start() {
+        server.start();
+        logger.info(() -> "HTTP API listening on port " + server.getAddress().getPort());
+    }
+
+    // Stops accepting requests and gives the running ones up to the delay to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        logger.info("HTTP API stopped");
+    }
+
+    // Entry point of every request: admission control, routing and error mapping
+    private void handle(HttpExchange exchange) {
+        try {
+            boolean admitted;
+            try {
+                admitted = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!admitted) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server busy, try again shortly");
+                return;
+            }
+            try {
+                route(exchange);
+            } catch (ApiException e) {
+                sendError(exchange, e.status, e.getMessage());
+            } catch (NotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (ValidationException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (BusinessException e) {
+                // Business rule refused the request (book not available, member inactive, ...)
+                sendError(exchange, 409, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+                sendError(exchange, 500, "Internal server error");
+            } finally {
+                permits.release();
+            }
+        } catch (IOException e) {
+            // The client went away; nothing left to answer
+            logger.log(Level.FINE, "Could not send HTTP response", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException, BusinessException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        switch (path) {
+            case "/api/health" -> {
+                requireMethod(method, "GET");
+                sendJson(exchange, 200, Map.of("status", "UP"));
+            }
+            case "/api/books" -> {
+                requireMethod(method, "GET");
+                sendJson(exchange, 200, findBooks(query));
+            }
+            case "/api/members" -> {
+                requireMethod(method, "GET");
+                sendJson(exchange, 200, findMembers(query));
+            }
+            case "/api/loans" -> {
+                if ("POST".equals(method)) {
+                    sendJson(exchange, 201, checkout(readJsonObject(exchange)));
+                } else {
+                    requireMethod(method, "GET");
+                    sendJson(exchange, 200, findLoans(query));
+                }
+            }
+            case "/api/returns" -> {
+                requireMethod(method, "POST");
+                sendJson(exchange, 200, returnLoans(readJsonObject(exchange)));
+            }
+            default -> throw new ApiException(404, "No such endpoint: " + path);
+        }
+    }
+
+    private Object findBooks(Map<String, String> query) {
+        if (query.containsKey("isbn")) {
+            Book book = bookService.getBookByIsbn(query.get("isbn"))
+                    .orElseThrow(() -> new ApiException(404, "Book not found"));
+            return toMap(book);
+        }
+        List<Book> books;
+        if (query.containsKey("title")) {
+            books = bookService.searchBooksByTitle(query.get("title"), pageSize(query));
+        } else if (query.containsKey("author")) {
+            books = bookService.searchBooksByAuthor(query.get("author"), pageSize(query));
+        } else {
+            books = bookService.getBooksPage(query.get("afterTitle"), intParam(query, "afterId"), pageSize(query));
+        }
+        List<Object> result = new ArrayList<>(books.size());
+        books.forEach(book -> result.add(toMap(book)));
+        return result;
+    }
+
+    private Object findMembers(Map<String, String> query) {
+        if (query.containsKey("idNumber")) {
+            Member member = memberService.getMemberByIdNumber(query.get("idNumber"))
+                    .orElseThrow(() -> new ApiException(404, "Member not found"));
+            return toMap(member);
+        }
+        List<Member> members = memberService.getMembersPage(query.get("afterFirstName"), query.get("afterLastName"),
+                intParam(query, "afterId"), pageSize(query));
+        List<Object> result = new ArrayList<>(members.size());
+        members.forEach(member -> result.add(toMap(member)));
+        return result;
+    }
+
+    private Object findLoans(Map<String, String> query) {
+        List<Object> result = new ArrayList<>();
+        if (query.containsKey("dueWithinDays")) {
+            // Answered from the in-memory due date index
+            for (DueDateIndex.DueLoan due : loanService.getLoansDueWithin(intParam(query, "dueWithinDays"))) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("id", due.getLoanId());
+                map.put("bookId", due.getBookId());
+                map.put("memberId", due.getMemberId());
+                map.put("dueDate", due.getDueDate());
+                result.add(map);
+            }
+            return result;
+        }
+
+        List<Loan> loans;
+        if (query.containsKey("memberId")) {
+            loans = loanService.getLoansByMember(intParam(query, "memberId"), pageSize(query));
+        } else if ("overdue".equalsIgnoreCase(query.get("status"))) {
+            loans = loanService.getOverdueLoans(pageSize(query));
+        } else if (query.containsKey("status")) {
+            throw new ApiException(400, "Unsupported status filter (use status=overdue or page through all loans)");
+        } else {
+            String afterDueDate = query.get("afterDueDate");
+            loans = loanService.getLoansPage(afterDueDate != null ? LocalDate.parse(afterDueDate) : null,
+                    intParam(query, "afterId"), pageSize(query));
+        }
+        loans.forEach(loan -> result.add(toMap(loan)));
+        return result;
+    }
+
+    private Object checkout(Map<String, Object> body) throws BusinessException {
+        Integer memberId = toInteger(body.get("memberId"), "memberId");
+        List<Integer> bookIds = new ArrayList<>();
+        if (body.get("bookIds") instanceof List<?> ids) {
+            for (Object id : ids) {
+                bookIds.add(toInteger(id, "bookIds"));
+            }
+        } else if (body.containsKey("bookId")) {
+            bookIds.add(toInteger(body.get("bookId"), "bookId"));
+        } else {
+            throw new ApiException(400, "bookIds is required");
+        }
+
+        List<Object> result = new ArrayList<>();
+        loanService.createLoans(memberId, bookIds).forEach(loan -> result.add(toMap(loan)));
+        return result;
+    }
+
+    private Object returnLoans(Map<String, Object> body) throws BusinessException {
+        if (!(body.get("loanIds") instanceof List<?> ids)) {
+            throw new ApiException(400, "loanIds is required");
+        }
+        List<Integer> loanIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            loanIds.add(toInteger(id, "loanIds"));
+        }
+
+        List<Object> result = new ArrayList<>();
+        for (ReturnOutcome outcome : loanService.returnLoans(loanIds)) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("loanId", outcome.getLoanId());
+            map.put("returned", outcome.isReturned());
+            map.put("fineAmount", outcome.getFineAmount());
+            map.put("message", outcome.getMessage());
+            result.add(map);
+        }
+        return result;
+    }
+
+    // Reads a JSON object body, refusing anything larger than api.maxRequestBytes
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readJsonObject(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > maxRequestBytes) {
+                    throw new ApiException(413, "Request body larger than " + maxRequestBytes + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Invalid Content-Length");
+            }
+        }
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            // Chunked bodies have no Content-Length: read one byte more than allowed to detect them
+            bytes = in.readNBytes(maxRequestBytes + 1);
+        }
+        if (bytes.length > maxRequestBytes) {
+            throw new ApiException(413, "Request body larger than " + maxRequestBytes + " bytes");
+        }
+        Object parsed = JsonUtil.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(parsed instanceof Map)) {
+            throw new ApiException(400, "Request body must be a JSON object");
+        }
+        return (Map<String, Object>) parsed;
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new ApiException(405, "Method " + method + " not allowed");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static Integer intParam(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+    }
+
+    private static int pageSize(Map<String, String> query) {
+        Integer limit = intParam(query, "limit");
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    // JSON numbers arrive as Double
+    private static Integer toInteger(Object value, String name) {
+        if (value instanceof Double number && number == Math.rint(number)
+                && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+            return number.intValue();
+        }
+        throw new ApiException(400, "Invalid " + name + ": whole numbers expected");
+    }
+
+    private static Map<String, Object> toMap(Book book) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", book.getId());
+        map.put("isbn", book.getIsbn());
+        map.put("title", book.getTitle());
+        map.put("author", book.getAuthor());
+        map.put("yearPublished", book.getYearPublished());
+        map.put("genre", book.getGenre());
+        map.put("totalCopies", book.getTotalCopies());
+        map.put("availableCopies", book.getAvailableCopies());
+        return map;
+    }
+
+    private static Map<String, Object> toMap(Member member) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", member.getId());
+        map.put("idNumber", member.getIdNumber());
+        map.put("firstName", member.getFirstName());
+        map.put("lastName", member.getLastName());
+        map.put("email", member.getEmail());
+        map.put("phone", member.getPhone());
+        map.put("membershipDate", member.getMembershipDate());
+        map.put("active", member.getActive());
+        return map;
+    }
+
+    private static Map<String, Object> toMap(Loan loan) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", loan.getId());
+        map.put("bookId", loan.getBookId());
+        map.put("memberId", loan.getMemberId());
+        map.put("bookTitle", loan.getBookTitle());
+        map.put("memberName", loan.getMemberName());
+        map.put("loanDate", loan.getLoanDate());
+        map.put("dueDate", loan.getDueDate());
+        map.put("returnDate", loan.getReturnDate());
+        map.put("status", loan.getStatus());
+        map.put("fineAmount", loan.getFineAmount());
+        return map;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", message != null ? message : "Error"));
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = JsonUtil.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Error with the HTTP status to answer with
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package app;
 
+import config.ConfigWatcher;
 import config.DatabaseConfig;
 import controller.BookController;
 import controller.LoanController;
 import controller.MemberController;
 import view.MenuView;
+import java.io.IOException;
 import java.util.logging.Logger;
 
 public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
     // Main method - the starting point of the application
+    // "--server [port]" runs the headless HTTP API (see HttpApiServer) instead of the menu
     public static void main(String[] args) {
         try {
             logger.info("=== LibroNova Library Management System Starting ===");
@@ -18,19 +21,32 @@ public class Main {
             // Step 1: Set up the database with all required tables
             logger.info("Initializing database...");
             DatabaseConfig.initializeDatabase();
+            // Pick up edits to config.properties (loan period, fines, limits...) without a restart
+            ConfigWatcher.start();
 
-            // Step 2: Create controllers that handle business logic
+            // Step 2: Build the shared services and start their background work (indexes, caches, sweeper)
+            ApplicationContext context = new ApplicationContext();
+            context.startBackgroundTasks();
+
+            if (args.length > 0 && "--server".equals(args[0])) {
+                startServer(context, args.length > 1 ? Integer.parseInt(args[1]) : DatabaseConfig.getIntSetting("api.port", 8080));
+                return;
+            }
+
+            // Step 3: Create controllers that handle business logic
             logger.info("Initializing controllers...");
-            BookController bookController = new BookController();
-            MemberController memberController = new MemberController();
-            LoanController loanController = new LoanController();
+            BookController bookController = context.getBookController();
+            MemberController memberController = context.getMemberController();
+            LoanController loanController = context.getLoanController();
 
-            // Step 3: Launch the main user interface menu
+            // Step 4: Launch the main user interface menu
             logger.info("Starting main menu...");
             MenuView menuView = new MenuView(bookController, memberController, loanController);
             menuView.showMainMenu();
 
             logger.info("=== LibroNova Application Shutting Down ===");
+            // Close all pooled database connections before leaving
+            DatabaseConfig.shutdown();
 
         } catch (Exception e) {
             // Handle any critical errors during application startup
@@ -39,4 +55,17 @@ public class Main {
             e.printStackTrace();
         }
     }
+
+    // Serves every desk and kiosk over HTTP from this JVM until the process is stopped
+    private static void startServer(ApplicationContext context, int port) throws IOException {
+        HttpApiServer server = new HttpApiServer(context, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("=== LibroNova HTTP API Shutting Down ===");
+            // Let requests in progress finish, then close all pooled database connections
+            server.stop(5);
+            DatabaseConfig.shutdown();
+        }, "libronova-shutdown"));
+        // The server's own thread keeps the JVM running after main returns
+        server.start();
+    }
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ public class TestConnection {
 
             // Close the connection to release resources
             conn.close();
+            // Shut down the connection pool so no connections stay open
+            DatabaseConfig.shutdown();
         } catch (Exception e) {
             // Error handling if connection fails
             System.err.println("💥 Error: " + e.getMessage());
@@ -0,0 +1,229 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Settings from config.properties, parsed once into an immutable, typed snapshot
+// Everyone reads the current snapshot through one volatile reference (AppConfig.get()), so a reload
+// swaps every setting at once and reading a setting is a field access, not a Properties lookup
+// The file is watched (see ConfigWatcher): business rules such as the loan period or the fine per day
+// change without a restart; the database address and the pool size are only used when the pool is created
+public final class AppConfig {
+    private static final Logger logger = Logger.getLogger(AppConfig.class.getName());
+    // Path of a config file to use instead of the one on the classpath
+    private static final String FILE_PROPERTY = "libronova.config";
+
+    private static volatile AppConfig current = load();
+    private static final List<Consumer<AppConfig>> listeners = new CopyOnWriteArrayList<>();
+
+    // Database
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    // Business rules
+    private final int loanDays;
+    private final double finePerDay;
+    private final int maxBooksPerMember;
+    // Every other setting, already trimmed (read through getInt/getLong/getDouble)
+    private final Map<String, String> values;
+
+    private AppConfig(Properties properties) {
+        Map<String, String> copy = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            copy.put(key, properties.getProperty(key).trim());
+        }
+        this.values = Collections.unmodifiableMap(copy);
+
+        this.dbUrl = text("db.url", "jdbc:mysql://localhost:3306/library_db?rewriteBatchedStatements=true");
+        this.dbUser = text("db.user", "root");
+        this.dbPassword = values.getOrDefault("db.password", "");
+        this.loanDays = getInt("loan.days", 14);
+        this.finePerDay = getDouble("fine.per.day", 5.00);
+        this.maxBooksPerMember = getInt("max.books.per.member", 3);
+
+        // A snapshot with impossible business rules is refused as a whole
+        if (loanDays <= 0) {
+            throw new IllegalArgumentException("loan.days must be positive: " + loanDays);
+        }
+        if (finePerDay < 0) {
+            throw new IllegalArgumentException("fine.per.day must not be negative: " + finePerDay);
+        }
+        if (maxBooksPerMember <= 0) {
+            throw new IllegalArgumentException("max.books.per.member must be positive: " + maxBooksPerMember);
+        }
+    }
+
+    // The settings in effect right now (never null)
+    public static AppConfig get() {
+        return current;
+    }
+
+    // Registers a listener told about every new snapshot after a reload
+    public static void addListener(Consumer<AppConfig> listener) {
+        listeners.add(listener);
+    }
+
+    // Reads the file again and, if it is valid, makes it the current snapshot
+    // An unreadable or invalid file keeps the previous snapshot; returns true if the settings were replaced
+    public static boolean reload() {
+        AppConfig next;
+        try {
+            next = parse(openSource());
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "config.properties not reloaded, keeping the current settings", e);
+            return false;
+        }
+        current = next;
+        logger.info(() -> "Configuration reloaded: loan.days=" + next.loanDays + ", fine.per.day=" + next.finePerDay
+                + ", max.books.per.member=" + next.maxBooksPerMember);
+        for (Consumer<AppConfig> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Configuration listener failed", e);
+            }
+        }
+        return true;
+    }
+
+    // The config file on disk, or null when config.properties is only inside a jar (nothing to watch then)
+    static Path getSourceFile() {
+        String override = System.getProperty(FILE_PROPERTY);
+        if (override != null) {
+            return Paths.get(override).toAbsolutePath();
+        }
+        URL resource = AppConfig.class.getClassLoader().getResource("config.properties");
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    public String getDbUrl() {
+        return dbUrl;
+    }
+
+    public String getDbUser() {
+        return dbUser;
+    }
+
+    public String getDbPassword() {
+        return dbPassword;
+    }
+
+    // Number of days a book can be borrowed
+    public int getLoanDays() {
+        return loanDays;
+    }
+
+    // Fine charged per day a book is late
+    public double getFinePerDay() {
+        return finePerDay;
+    }
+
+    // Number of books a member can have out at the same time
+    public int getMaxBooksPerMember() {
+        return maxBooksPerMember;
+    }
+
+    // Raw value of a setting, or null
+    public String getString(String key) {
+        return values.get(key);
+    }
+
+    // Reads an integer setting, falling back to the default if missing or invalid
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warning(() -> "Invalid integer for setting " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // Reads a long setting, falling back to the default if missing or invalid
+    public long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warning(() -> "Invalid number for setting " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // Reads a decimal setting, falling back to the default if missing or invalid
+    public double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.warning(() -> "Invalid number for setting " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private String text(String key, String defaultValue) {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    // First load: a broken file must not stop the application, so fall back to the defaults
+    private static AppConfig load() {
+        try {
+            return parse(openSource());
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not read config.properties, using default settings", e);
+            return new AppConfig(new Properties());
+        }
+    }
+
+    private static AppConfig parse(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        if (in == null) {
+            logger.warning("config.properties not found on classpath, using default settings");
+            return new AppConfig(properties);
+        }
+        try (InputStream source = in) {
+            properties.load(source);
+        }
+        return new AppConfig(properties);
+    }
+
+    // The watched file if there is one (the classpath copy may be cached by the class loader), else the resource
+    private static InputStream openSource() throws IOException {
+        Path file = getSourceFile();
+        if (file != null && Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        return AppConfig.class.getClassLoader().getResourceAsStream("config.properties");
+    }
+}
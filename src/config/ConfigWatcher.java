@@ -0,0 +1,97 @@
+package config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Reloads AppConfig whenever config.properties changes on disk
+// The directory is watched (editors often save by writing a new file and renaming it over the old one)
+// and changes are collected for a moment so a save made of several writes triggers one reload
+public class ConfigWatcher {
+    private static final Logger logger = Logger.getLogger(ConfigWatcher.class.getName());
+    // Time to let a save finish before the file is read
+    private static final long SETTLE_MILLIS = 250;
+
+    private static WatchService watchService;
+
+    // Starts watching the config file (only the first call has an effect)
+    public static synchronized void start() {
+        if (watchService != null) {
+            return;
+        }
+        Path file = AppConfig.getSourceFile();
+        if (file == null || file.getParent() == null) {
+            logger.info("config.properties is not a file on disk, configuration changes need a restart");
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not watch " + file + ", configuration changes need a restart", e);
+            stop();
+            return;
+        }
+
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watch(service, file.getFileName()), "libronova-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info(() -> "Watching " + file + " for configuration changes");
+    }
+
+    // Stops watching
+    public static synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing the config watcher", e);
+            }
+            watchService = null;
+        }
+    }
+
+    private static void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = concernsFile(key, fileName);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // Swallow the events of the rest of the save, then read the file once
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey more;
+                while ((more = service.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                AppConfig.reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stop() was called
+        }
+    }
+
+    private static boolean concernsFile(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,341 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import util.LatencyHistogram;
+
+public class ConnectionPool implements ConnectionPoolMXBean {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Where and how to open the real (physical) MySQL connections
+    private final String url;
+    private final String user;
+    private final String password;
+
+    // Pool limits and timeouts (all read from config.properties)
+    private final int maxSize;
+    private final int minIdle;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSeconds;
+
+    // One permit per connection that may be handed out; "fair" means callers are served in arrival order
+    private final Semaphore permits;
+    // Connections waiting to be reused; the most recently returned one is reused first
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // Number of physical connections currently open (idle + borrowed)
+    private final AtomicInteger openConnections = new AtomicInteger();
+    // Background task that closes idle and too-old connections
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // How long callers waited for a connection, and how many gave up
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    // Total wait of the current thread, so callers can tell pool wait apart from query time
+    private static final ThreadLocal<long[]> threadWaitNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                          long validationIntervalMs, int validationTimeoutSeconds) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(this.maxSize, true);
+
+        // Run the eviction task on a daemon thread so it never keeps the application alive
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "libronova-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMs, 30_000L));
+        housekeeper.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+
+        logger.info(() -> "Connection pool started (max size: " + this.maxSize + ", min idle: " + this.minIdle + ")");
+    }
+
+    // Hands out a connection, reusing an idle one when possible
+    // Calling close() on the returned connection gives it back to the pool instead of closing it
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        // Wait in line (fairly) for a free slot
+        long waitStart = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS);
+            long waited = System.nanoTime() - waitStart;
+            waitTimes.record(waited);
+            threadWaitNanos.get()[0] += waited;
+            if (!acquired) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + connectionTimeoutMs
+                        + " ms waiting for a database connection (pool size: " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            // Reuse an idle connection if it is still healthy
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isExpired(entry) || !isHealthy(entry)) {
+                    closePhysical(entry);
+                    continue;
+                }
+                return entry.lease();
+            }
+
+            // Nothing to reuse, open a new physical connection
+            return openPhysical().lease();
+
+        } catch (SQLException | RuntimeException e) {
+            // Give the slot back so other callers are not starved by our failure
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Closes every idle connection and refuses further borrowing
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closePhysical(entry);
+        }
+        logger.info("Connection pool closed");
+    }
+
+    // Total time (ns) the calling thread has spent waiting for connections since it started
+    // Take the difference of two readings to get the wait during one operation
+    public static long getThreadWaitNanos() {
+        return threadWaitNanos.get()[0];
+    }
+
+    // Number of physical connections currently open
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    // Number of connections sitting unused in the pool
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    // Number of connections currently handed out to callers
+    public int getActiveConnections() {
+        return maxSize - permits.availablePermits();
+    }
+
+    // Number of callers currently waiting for a connection
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    // Number of connections handed out since startup (including failed attempts)
+    public long getBorrowCount() {
+        return waitTimes.getCount();
+    }
+
+    // Number of callers that gave up waiting for a connection
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getWaitP50Micros() {
+        return waitTimes.snapshot().getPercentileMicros(0.50);
+    }
+
+    public long getWaitP99Micros() {
+        return waitTimes.snapshot().getPercentileMicros(0.99);
+    }
+
+    public long getWaitP999Micros() {
+        return waitTimes.snapshot().getPercentileMicros(0.999);
+    }
+
+    public long getWaitMaxMicros() {
+        return waitTimes.snapshot().getMaxMicros();
+    }
+
+    // Copy of the wait-time histogram, for the periodic metrics summary
+    public LatencyHistogram.Snapshot getWaitSnapshot() {
+        return waitTimes.snapshot();
+    }
+
+    // Called by a leased connection's close(): resets it and puts it back for the next caller
+    private void release(PooledEntry entry) {
+        try {
+            if (closed || entry.broken || isExpired(entry) || entry.physical.isClosed()) {
+                closePhysical(entry);
+                return;
+            }
+
+            // Never hand a half-finished transaction to the next caller
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.physical.clearWarnings();
+
+            entry.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(entry);
+
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            closePhysical(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Opens a brand new connection to MySQL
+    private PooledEntry openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        openConnections.incrementAndGet();
+        logger.fine(() -> "Opened new pooled database connection (open: " + openConnections.get() + ")");
+        return new PooledEntry(physical);
+    }
+
+    // Really closes the underlying MySQL connection
+    private void closePhysical(PooledEntry entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection", e);
+        } finally {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    // A connection is too old once it has lived longer than the configured max lifetime
+    private boolean isExpired(PooledEntry entry) {
+        return maxLifetimeMs > 0 && System.currentTimeMillis() - entry.createdAt > maxLifetimeMs;
+    }
+
+    // Recently used connections are trusted; older ones get a quick ping before reuse
+    private boolean isHealthy(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsed < validationIntervalMs) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Periodic cleanup: drop connections that are too old or have been idle too long (keeping minIdle)
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+
+        Iterator<PooledEntry> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledEntry entry = iterator.next();
+            boolean idleTooLong = idleTimeoutMs > 0 && now - entry.lastUsed > idleTimeoutMs
+                    && idle.size() > minIdle;
+            if ((isExpired(entry) || idleTooLong) && idle.remove(entry)) {
+                closePhysical(entry);
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            int count = evicted;
+            logger.fine(() -> "Evicted " + count + " idle connections (open: " + openConnections.get() + ")");
+        }
+    }
+
+    // Book-keeping for one physical connection owned by the pool
+    private final class PooledEntry {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsed = createdAt;
+        private volatile boolean broken = false;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Wraps the physical connection so close() returns it to the pool
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    // Forwards every call to the physical connection, except close() which hands it back
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+
+        private LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name)) {
+                // Closing twice must not return the same connection to the pool twice
+                if (!returned) {
+                    returned = true;
+                    release(entry);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || entry.physical.isClosed();
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                // SQL state class 08 means the link to the server is gone: do not reuse this connection
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                        && sqlException.getSQLState().startsWith("08")) {
+                    entry.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
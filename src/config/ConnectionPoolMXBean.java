@@ -0,0 +1,27 @@
+package config;
+
+// What JMX tools show for the connection pool
+// Wait times (microseconds) measure how long callers queued for a connection, not how long their queries ran
+public interface ConnectionPoolMXBean {
+    int getOpenConnections();
+
+    int getIdleConnections();
+
+    int getActiveConnections();
+
+    int getWaitingThreads();
+
+    // Number of connections handed out since startup
+    long getBorrowCount();
+
+    // Number of callers that gave up after pool.connectionTimeoutMs
+    long getTimeoutCount();
+
+    long getWaitP50Micros();
+
+    long getWaitP99Micros();
+
+    long getWaitP999Micros();
+
+    long getWaitMaxMicros();
+}
@@ -1,9 +1,14 @@
 package config;
 
+import util.JmxUtil;
+import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.logging.Level;
+import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 public class DatabaseConfig {
@@ -11,13 +16,8 @@ public class DatabaseConfig {
     // It helps us track when connections are made, when errors occur, etc.
     private static final Logger logger = Logger.getLogger(DatabaseConfig.class.getName());
 
-    // These are like the "address" and "keys" to get into our database house
-    // URL = the exact location of our database (like a house address)
-    // USER = who we're pretending to be when we knock on the door
-    // PASSWORD = the secret code to prove we're allowed to enter
-    private static final String URL = "jdbc:mysql://localhost:3306/library_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "Qwe.123*";
+    // Our garage of ready-to-use database connections, created on first use
+    private static volatile ConnectionPool pool;
 
     // This block runs automatically when the class is first used
     // Think of it as setting up our logging notebook before we start working
@@ -27,12 +27,23 @@ public class DatabaseConfig {
 
     // This method prepares our logging notebook with the right format
     // It tells the notebook how to write down dates, times, and messages
+    // and loads logging.properties (asynchronous file + console output, levels per package)
     private static void setupLogger() {
         try {
             // This is like saying: "When you write in the notebook, use this format:
             // [Date Time] [TYPE] Message"
             System.setProperty("java.util.logging.SimpleFormatter.format",
                     "[%1$tF %1$tT] [%4$-7s] %5$s %n");
+
+            // A logging file given on the command line wins over the bundled one
+            if (System.getProperty("java.util.logging.config.file") == null
+                    && System.getProperty("java.util.logging.config.class") == null) {
+                try (InputStream in = DatabaseConfig.class.getClassLoader().getResourceAsStream("logging.properties")) {
+                    if (in != null) {
+                        LogManager.getLogManager().readConfiguration(in);
+                    }
+                }
+            }
         } catch (Exception e) {
             // If we can't set up the notebook properly, write the error somewhere else
             System.err.println("Error configuring logger: " + e.getMessage());
@@ -40,53 +51,32 @@ public class DatabaseConfig {
     }
 
     // This is like calling a taxi to take us to the database house
-    // It establishes a connection path between our program and the database
+    // The taxi now comes from our own garage (the connection pool) instead of being built for every trip
+    // Closing the returned connection parks the taxi back in the garage for the next caller
+    // If this thread is inside a transaction, everyone shares the transaction's taxi instead
     public static Connection getConnection() throws SQLException {
+        Connection transactional = TransactionContext.join();
+        if (transactional != null) {
+            return transactional;
+        }
         try {
-            // First, we need to make sure we have the right "car" (MySQL driver)
-            // This is like checking we have the right vehicle to get to MySQL database
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
-            // Write in our notebook that we're trying to connect
-            logger.info("Attempting database connection to: " + URL);
-            logger.info("Connection user: " + USER);
-
-            // Actually knock on the database door with our credentials
-            // If successful, we get a "Connection" object - our open door to the database
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-
-            // Write in our notebook that we successfully entered
-            logger.info("Database connection established successfully");
-            return conn;
-
-        } catch (ClassNotFoundException e) {
-            // Oops! We don't have the MySQL driver installed
-            // This is like trying to drive a car that doesn't exist
-            logger.log(Level.SEVERE, "MySQL JDBC Driver not found in classpath", e);
-            throw new SQLException("Driver not found: " + e.getMessage());
+            return getPool().borrow();
         } catch (SQLException e) {
-            // The database rejected us - wrong password, database doesn't exist, etc.
-            logger.log(Level.SEVERE, "Failed to establish database connection", e);
-            throw new SQLException("Connection failed: " + e.getMessage(), e);
+            // The database rejected us - wrong password, database doesn't exist, pool exhausted, etc.
+            logger.log(Level.SEVERE, "Failed to obtain database connection", e);
+            throw e;
         }
     }
 
     // This is like a secret, quiet connection for transactions
     // Transactions are groups of operations that must all succeed or all fail together
+    // The pool rolls back and restores auto-commit if a transaction connection comes back unfinished
     public static Connection getTransactionConnection() throws SQLException {
         try {
-            // Make sure we have the MySQL driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            // Get a connection but don't make a big fuss about it
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+            Connection conn = getPool().borrow();
             // Just write a small note that we got a transaction connection
-            logger.fine("Transaction connection established");
+            logger.fine("Transaction connection obtained from pool");
             return conn;
-
-        } catch (ClassNotFoundException e) {
-            // No MySQL driver found
-            logger.log(Level.SEVERE, "MySQL Driver not found for transaction", e);
-            throw new SQLException("Driver not found");
         } catch (SQLException e) {
             // Couldn't connect to the database
             logger.log(Level.SEVERE, "Failed to establish transaction connection", e);
@@ -94,6 +84,93 @@ public class DatabaseConfig {
         }
     }
 
+    // Builds the connection pool the first time someone needs a connection
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConfig.class) {
+            if (pool == null) {
+                try {
+                    // Make sure we have the right "car" (MySQL driver) - checked once, not on every trip
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                } catch (ClassNotFoundException e) {
+                    logger.log(Level.SEVERE, "MySQL JDBC Driver not found in classpath", e);
+                    throw new SQLException("Driver not found: " + e.getMessage());
+                }
+
+                // The "address" and "keys" of our database house come from config.properties
+                // (db.url, db.user, db.password); rewriteBatchedStatements in the URL lets the driver send
+                // JDBC batches as multi-row INSERTs (used by bulk imports)
+                AppConfig config = AppConfig.get();
+                logger.info(() -> "Creating connection pool for: " + config.getDbUrl() + " (user: " + config.getDbUser() + ")");
+                pool = new ConnectionPool(config.getDbUrl(), config.getDbUser(), config.getDbPassword(),
+                        getIntSetting("pool.maxSize", 10),
+                        getIntSetting("pool.minIdle", 2),
+                        getLongSetting("pool.connectionTimeoutMs", 30_000L),
+                        getLongSetting("pool.idleTimeoutMs", 600_000L),
+                        getLongSetting("pool.maxLifetimeMs", 1_800_000L),
+                        getLongSetting("pool.validationIntervalMs", 1_000L),
+                        getIntSetting("pool.validationTimeoutSeconds", 5));
+                // Connection and wait-time figures readable over JMX
+                JmxUtil.register("type=ConnectionPool", pool);
+            }
+            return pool;
+        }
+    }
+
+    // The pool if it has been created, or null (used by monitoring, which must not open connections)
+    public static ConnectionPool getPoolIfStarted() {
+        return pool;
+    }
+
+    // Prepares a read-only, forward-only statement that streams rows from MySQL instead of buffering them
+    // export.fetchSize > 0 fetches that many rows per round-trip (needs useCursorFetch=true in the URL);
+    // the default (Integer.MIN_VALUE) makes the MySQL driver stream row by row
+    public static PreparedStatement prepareStreamingStatement(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(getIntSetting("export.fetchSize", Integer.MIN_VALUE));
+        return stmt;
+    }
+
+    // Closes every pooled connection - call this when the application is shutting down
+    public static void shutdown() {
+        synchronized (DatabaseConfig.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
+
+    // True when a write failed because of a UNIQUE constraint (MySQL error 1062, SQL state 23000)
+    // Looks through the RuntimeException wrappers thrown by the DAOs
+    public static boolean isDuplicateKey(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException
+                    || (cause instanceof SQLException sqlException && sqlException.getErrorCode() == 1062)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Reads an integer setting from the current configuration, falling back to the default if missing or invalid
+    public static int getIntSetting(String key, int defaultValue) {
+        return AppConfig.get().getInt(key, defaultValue);
+    }
+
+    // Reads a long setting from the current configuration, falling back to the default if missing or invalid
+    public static long getLongSetting(String key, long defaultValue) {
+        return AppConfig.get().getLong(key, defaultValue);
+    }
+
+    // Reads a decimal setting from the current configuration, falling back to the default if missing or invalid
+    public static double getDoubleSetting(String key, double defaultValue) {
+        return AppConfig.get().getDouble(key, defaultValue);
+    }
+
     // This method builds the entire database structure from scratch
     // It's like building the shelves, tables, and organization system for a new library
     public static void initializeDatabase() {
@@ -148,7 +225,7 @@ public class DatabaseConfig {
                 loan_date DATE NOT NULL,
                 due_date DATE NOT NULL,
                 return_date DATE NULL,
-                status VARCHAR(20) DEFAULT 'ACTIVE',
+                status ENUM('ACTIVE', 'RETURNED', 'OVERDUE') NOT NULL DEFAULT 'ACTIVE',
                 fine_amount DECIMAL(10,2) DEFAULT 0.00,
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                 FOREIGN KEY (book_id) REFERENCES books(id),
@@ -178,6 +255,11 @@ public class DatabaseConfig {
             stmt.execute(createLoansTable);
             logger.info("Loans table created/verified");
 
+            // Add the indexes and later schema changes that are not part of the basic tables
+            // Each numbered migration runs only once per database; it reuses this connection, so startup
+            // never waits for a second one (with pool.maxSize=1 it would wait until the pool timed out)
+            new SchemaMigrator().migrate(conn);
+
             // Celebrate! Our library database is ready to use
             logger.info("Database initialization completed successfully");
 
@@ -190,11 +272,12 @@ public class DatabaseConfig {
 
     // This method politely closes the database connection
     // Think of it as closing the door when we leave the database house
+    // For pooled connections this hands the connection back to the pool
     public static void closeConnection(Connection conn) {
         if (conn != null) {  // Only try to close if we actually have an open connection
             try {
                 conn.close();  // Say goodbye to the database
-                logger.fine("Database connection closed successfully");
+                logger.fine("Database connection released successfully");
             } catch (SQLException e) {
                 // The door got stuck! Couldn't close properly
                 logger.log(Level.WARNING, "Error closing database connection", e);
@@ -0,0 +1,174 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Brings the database schema up to date by running numbered migration scripts exactly once
+// Applied versions are recorded in the schema_version table
+public class SchemaMigrator {
+    private static final Logger logger = Logger.getLogger(SchemaMigrator.class.getName());
+
+    // Classpath folder holding the scripts
+    private static final String MIGRATIONS_FOLDER = "migrations/";
+
+    // Every migration, in the order it must run; the number after "V" is the version
+    // To change the schema, add a new script at the end - never edit one that has already shipped
+    private static final String[] MIGRATIONS = {
+            "V1__hot_path_indexes.sql",
+            "V2__loan_status_enum.sql",
+            "V3__member_active_loans.sql"
+    };
+
+    // MySQL named lock so two instances starting at once do not migrate at the same time
+    private static final String LOCK_NAME = "libronova_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // Runs every migration not yet recorded in schema_version, on a connection borrowed from the pool
+    // Returns the number of migrations applied
+    public int migrate() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    // Same, on a connection the caller already holds (startup, so it never waits for a second one)
+    // The connection is left open
+    public int migrate(Connection conn) throws SQLException {
+        acquireLock(conn);
+        try {
+            createVersionTable(conn);
+            Set<Integer> applied = findAppliedVersions(conn);
+
+            int count = 0;
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                if (applied.contains(version)) {
+                    continue;
+                }
+                apply(conn, script, version);
+                count++;
+            }
+
+            if (count == 0) {
+                logger.info("Database schema is up to date");
+            } else {
+                logger.log(Level.INFO, "Applied {0} schema migration(s)", count);
+            }
+            return count;
+
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    // Creates the table that remembers which migrations ran
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    script VARCHAR(255) NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+        }
+    }
+
+    private Set<Integer> findAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    // Runs one script statement by statement, then records it
+    // MySQL commits DDL immediately, so a failing script stops the run and must be fixed by hand
+    private void apply(Connection conn, String script, int version) throws SQLException {
+        logger.info(() -> "Applying schema migration " + script);
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : readStatements(script)) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, e, () -> "Schema migration failed: " + script);
+            throw e;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Reads a script from the classpath and splits it into statements (';' ends a statement, '--' starts a comment)
+    private List<String> readStatements(String script) throws SQLException {
+        String text;
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(MIGRATIONS_FOLDER + script)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found on classpath: " + script);
+            }
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration script: " + script, e);
+        }
+
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : text.split("\\R")) {
+            int comment = line.indexOf("--");
+            withoutComments.append(comment >= 0 ? line.substring(0, comment) : line).append('\n');
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String statement : withoutComments.toString().split(";")) {
+            if (!statement.isBlank()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+
+    // "V12__something.sql" -> 12
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not release the schema migration lock", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TransactionContext {
+    private static final Logger logger = Logger.getLogger(TransactionContext.class.getName());
+
+    // The transaction connection owned by the current thread (null when no transaction is running)
+    // Every DAO call made on this thread while it is set runs on this same connection
+    private static final ThreadLocal<Connection> current = new ThreadLocal<>();
+    // Work to run once the current transaction has finished (committed or rolled back)
+    private static final ThreadLocal<List<Runnable>> endCallbacks = ThreadLocal.withInitial(ArrayList::new);
+
+    private TransactionContext() {}
+
+    // Starts a transaction on this thread: borrows one connection and turns auto-commit off
+    // Until end() is called, DatabaseConfig.getConnection() hands out this connection to every DAO
+    public static Connection begin() throws SQLException {
+        if (current.get() != null) {
+            throw new SQLException("A transaction is already active on this thread");
+        }
+
+        Connection conn = DatabaseConfig.getTransactionConnection();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            DatabaseConfig.closeConnection(conn);
+            throw e;
+        }
+        current.set(conn);
+        logger.fine(() -> "Transaction started on thread " + Thread.currentThread().getName());
+        return conn;
+    }
+
+    // Tells if the current thread is inside a transaction
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    // Runs the task when the current transaction ends, or right away if there is no transaction
+    // Used by caches so they forget rows changed by a transaction once its outcome is visible to others
+    public static void onEnd(Runnable task) {
+        if (current.get() == null) {
+            task.run();
+        } else {
+            endCallbacks.get().add(task);
+        }
+    }
+
+    // Returns a view of the active transaction connection whose close() does nothing,
+    // so DAOs can keep using try-with-resources without ending the transaction early
+    static Connection join() {
+        Connection conn = current.get();
+        if (conn == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                TransactionContext.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    // Closing, committing or changing auto-commit belongs to whoever started the transaction
+                    String name = method.getName();
+                    boolean noArgs = method.getParameterCount() == 0;
+                    if ("setAutoCommit".equals(name)
+                            || (noArgs && ("close".equals(name) || "commit".equals(name) || "rollback".equals(name)))) {
+                        return null;
+                    }
+                    if ("isClosed".equals(name)) {
+                        return conn.isClosed();
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    // Finishes the transaction on this thread and gives the connection back to the pool
+    // Anything not committed by then is rolled back by the pool
+    public static void end() {
+        Connection conn = current.get();
+        current.remove();
+        if (conn != null) {
+            DatabaseConfig.closeConnection(conn);
+            logger.fine(() -> "Transaction ended on thread " + Thread.currentThread().getName());
+        }
+
+        // Run the end-of-transaction tasks now that the outcome is visible to other connections
+        List<Runnable> tasks = endCallbacks.get();
+        endCallbacks.remove();
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Error running end-of-transaction task", e);
+            }
+        }
+    }
+}
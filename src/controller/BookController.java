@@ -1,9 +1,14 @@
 package controller;
 
+import config.DatabaseConfig;
 import domain.Book;
+import domain.ImportResult;
 import exceptions.BusinessException;
 import service.BookService;
+import util.AsyncExecutor;
 import util.CSVExportUtil;
+import view.BusyDialog;
+import view.PagedTableModel;
 import view.BookView;
 import java.util.List;
 
@@ -13,9 +18,9 @@ public class BookController {
     // Handles user interface for book-related screens
     private BookView bookView;
 
-    // Constructor - creates new instances of service and view
-    public BookController() {
-        this.bookService = new BookService();
+    // Constructor used by ApplicationContext - works on the shared service
+    public BookController(BookService bookService) {
+        this.bookService = bookService;
         this.bookView = new BookView();
     }
 
@@ -24,8 +29,8 @@ public class BookController {
         try {
             // Get book information from user input
             Book book = bookView.showAddBookForm();
-            // Save book to database through service layer
-            bookService.addBook(book);
+            // Save book to database through service layer (off the UI thread)
+            BusyDialog.awaitWrite("Saving book...", AsyncExecutor.run(() -> bookService.addBook(book)));
             // Show confirmation message to user
             bookView.showSuccessMessage("Book added successfully");
         } catch (BusinessException e) {
@@ -39,30 +44,54 @@ public class BookController {
 
     // Retrieves and displays all books in the system
     public void showAllBooks() {
-        // Get complete list of books from database
-        List<Book> books = bookService.getAllBooks();
-        // Display the list to the user
-        bookView.displayBooks(books);
+        try {
+            // Count the catalog in the background; rows are then fetched page by page as the table scrolls
+            PagedTableModel<Book> model = BusyDialog.await("Loading books...", AsyncExecutor.supply(() ->
+                    bookView.createBookTableModel(new PagedTableModel.PageSource<>() {
+                        public int count() {
+                            return bookService.countBooks();
+                        }
+
+                        public List<Book> fetchAfter(Book last, int limit) {
+                            return last == null
+                                    ? bookService.getBooksPage(null, null, limit)
+                                    : bookService.getBooksPage(last.getTitle(), last.getId(), limit);
+                        }
+
+                        public List<Book> fetchAt(int offset, int limit) {
+                            return bookService.getBooksAt(offset, limit);
+                        }
+                    })));
+            // Display the table to the user
+            bookView.displayBookTable(model);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            bookView.showErrorMessage(e.getMessage());
+        }
     }
 
-    // Searches for books by title and displays results
+    // Searches for books by title, updating the results while the user types
     public void searchBooksByTitle() {
-        // Ask user for search term
-        String title = bookView.askForTitle();
-        // Search database for matching books
-        List<Book> books = bookService.searchBooksByTitle(title);
-        // Show search results to user
-        bookView.displayBooks(books);
+        try {
+            bookView.showIncrementalSearch("Title", Book::getTitle, bookService::searchBooksByTitle,
+                    DatabaseConfig.getIntSetting("search.maxResults", 200),
+                    DatabaseConfig.getIntSetting("search.debounceMs", 250));
+        } catch (Exception e) {
+            // Show error message if the window cannot be shown
+            bookView.showErrorMessage(e.getMessage());
+        }
     }
 
-    // Searches for books by author and displays results
+    // Searches for books by author, updating the results while the user types
     public void searchBooksByAuthor() {
-        // Ask user for author name to search
-        String author = bookView.askForAuthor();
-        // Search database for books by this author
-        List<Book> books = bookService.searchBooksByAuthor(author);
-        // Display matching books to user
-        bookView.displayBooks(books);
+        try {
+            bookView.showIncrementalSearch("Author", Book::getAuthor, bookService::searchBooksByAuthor,
+                    DatabaseConfig.getIntSetting("search.maxResults", 200),
+                    DatabaseConfig.getIntSetting("search.debounceMs", 250));
+        } catch (Exception e) {
+            // Show error message if the window cannot be shown
+            bookView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Handles updating an existing book's information
@@ -71,13 +100,13 @@ public class BookController {
             // Get ISBN to identify which book to update
             String isbn = bookView.askForIsbn();
             // Find the book in database, throw error if not found
-            Book book = bookService.getBookByIsbn(isbn)
+            Book book = BusyDialog.await("Looking up book...", bookService.getBookByIsbnAsync(isbn))
                     .orElseThrow(() -> new BusinessException("Book not found"));
 
             // Get updated information from user
             Book updatedBook = bookView.showUpdateBookForm(book);
             // Save changes to database
-            bookService.updateBook(updatedBook);
+            BusyDialog.awaitWrite("Saving book...", AsyncExecutor.run(() -> bookService.updateBook(updatedBook)));
             // Confirm successful update to user
             bookView.showSuccessMessage("Book updated successfully");
 
@@ -93,10 +122,9 @@ public class BookController {
     // Exports all books to a CSV file for reporting
     public void exportBooksToCSV() {
         try {
-            // Get all books from database
-            List<Book> books = bookService.getAllBooks();
-            // Export to CSV file with automatic filename
-            String filename = CSVExportUtil.exportBooksToCSV(books);
+            // Stream books from the database straight into a CSV file with automatic filename
+            String filename = BusyDialog.await("Exporting books...",
+                    AsyncExecutor.supply(() -> CSVExportUtil.streamBooksToCSV(bookService::streamAllBooks)));
             // Confirm export success to user
             bookView.showSuccessMessage("Books exported successfully to: " + filename);
         } catch (Exception e) {
@@ -105,19 +133,43 @@ public class BookController {
         }
     }
 
+    // Imports a whole catalog from a CSV file (same columns as the books export)
+    public void importBooksFromCSV() {
+        try {
+            // Ask which file to import
+            String filename = bookView.askForImportFile();
+            if (filename == null || filename.trim().isEmpty()) {
+                return;
+            }
+            // Rejected rows are written next to the imported file
+            String rejectsFile = filename.trim() + ".rejects.csv";
+            ImportResult result = BusyDialog.awaitWrite("Importing books...",
+                    AsyncExecutor.supply(() -> bookService.importBooks(filename.trim(), rejectsFile)));
+            // Show the import summary to the user
+            bookView.showSuccessMessage("Import finished\n" + result
+                    + (result.getRowsRejected() > 0 ? "\nRejected rows written to: " + rejectsFile : ""));
+        } catch (BusinessException e) {
+            // Show specific error message (e.g., file not found)
+            bookView.showErrorMessage(e.getMessage());
+        } catch (Exception e) {
+            // Show generic error message
+            bookView.showErrorMessage("Unexpected error: " + e.getMessage());
+        }
+    }
+
     // Handles deleting a book from the system
     public void deleteBook() {
         try {
             // Get ISBN to identify which book to delete
             String isbn = bookView.askForIsbn();
             // Find the book in database, throw error if not found
-            Book book = bookService.getBookByIsbn(isbn)
+            Book book = BusyDialog.await("Looking up book...", bookService.getBookByIsbnAsync(isbn))
                     .orElseThrow(() -> new BusinessException("Book not found"));
 
             // Ask user to confirm deletion
             if (bookView.confirmDelete(book)) {
                 // Delete book from database
-                bookService.deleteBook(book.getId());
+                BusyDialog.awaitWrite("Deleting book...", AsyncExecutor.run(() -> bookService.deleteBook(book.getId())));
                 // Confirm successful deletion
                 bookView.showSuccessMessage("Book deleted successfully");
             }
@@ -3,7 +3,10 @@ package controller;
 import domain.Loan;
 import exceptions.BusinessException;
 import service.LoanService;
+import util.AsyncExecutor;
 import util.CSVExportUtil;
+import view.BusyDialog;
+import view.PagedTableModel;
 import view.LoanView;
 import java.util.List;
 
@@ -13,9 +16,9 @@ public class LoanController {
     // Handles user interface for loan-related screens
     private LoanView loanView;
 
-    // Constructor - creates new instances of service and view
-    public LoanController() {
-        this.loanService = new LoanService();
+    // Constructor used by ApplicationContext - works on the shared service
+    public LoanController(LoanService loanService) {
+        this.loanService = loanService;
         this.loanView = new LoanView();
     }
 
@@ -28,7 +31,7 @@ public class LoanController {
             Integer memberId = loanView.askForMemberId();
 
             // Create the loan in the database through service layer
-            loanService.createLoan(bookId, memberId);
+            BusyDialog.awaitWrite("Creating loan...", loanService.createLoanAsync(bookId, memberId));
             // Show confirmation message to user
             loanView.showSuccessMessage("Loan created successfully");
 
@@ -47,7 +50,7 @@ public class LoanController {
             // Get loan ID from user input to identify which loan to return
             Integer loanId = loanView.askForLoanId();
             // Process the book return through service layer
-            loanService.returnLoan(loanId);
+            BusyDialog.awaitWrite("Processing return...", loanService.returnLoanAsync(loanId));
             // Show confirmation message to user
             loanView.showSuccessMessage("Return processed successfully");
 
@@ -62,27 +65,51 @@ public class LoanController {
 
     // Retrieves and displays all loans in the system
     public void showAllLoans() {
-        // Get complete list of all loans from database
-        List<Loan> loans = loanService.getAllLoans();
-        // Display the list to the user
-        loanView.displayLoans(loans);
+        try {
+            // Count loans in the background; rows are then fetched page by page as the table scrolls
+            PagedTableModel<Loan> model = BusyDialog.await("Loading loans...", AsyncExecutor.supply(() ->
+                    loanView.createLoanTableModel(new PagedTableModel.PageSource<>() {
+                        public int count() {
+                            return loanService.countLoans();
+                        }
+
+                        public List<Loan> fetchAfter(Loan last, int limit) {
+                            return last == null
+                                    ? loanService.getLoansPage(null, null, limit)
+                                    : loanService.getLoansPage(last.getDueDate(), last.getId(), limit);
+                        }
+
+                        public List<Loan> fetchAt(int offset, int limit) {
+                            return loanService.getLoansAt(offset, limit);
+                        }
+                    })));
+            // Display the table to the user
+            loanView.displayLoanTable(model);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            loanView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Retrieves and displays only active loans (books not yet returned)
     public void showActiveLoans() {
-        // Get list of currently active loans from database
-        List<Loan> loans = loanService.getActiveLoans();
-        // Display active loans to user
-        loanView.displayLoans(loans);
+        try {
+            // Get list of currently active loans from database while the UI stays responsive
+            List<Loan> loans = BusyDialog.await("Loading loans...", loanService.getActiveLoansAsync());
+            // Display active loans to user
+            loanView.displayLoans(loans);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            loanView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Exports overdue loans to a CSV file for reporting
     public void exportOverdueLoansToCSV() {
         try {
-            // Get all overdue loans from database
-            List<Loan> loans = loanService.getOverdueLoans();
-            // Export to CSV file with automatic filename
-            String filename = CSVExportUtil.exportOverdueLoansToCSV(loans);
+            // Stream overdue loans from the database straight into a CSV file with automatic filename
+            String filename = BusyDialog.await("Exporting overdue loans...",
+                    AsyncExecutor.supply(() -> CSVExportUtil.streamOverdueLoansToCSV(loanService::streamOverdueLoans)));
             // Confirm export success to user
             loanView.showSuccessMessage("Overdue loans exported successfully to: " + filename);
         } catch (Exception e) {
@@ -94,10 +121,9 @@ public class LoanController {
     // Exports all loans to a CSV file for reporting
     public void exportAllLoansToCSV() {
         try {
-            // Get all loans from database
-            List<Loan> loans = loanService.getAllLoans();
-            // Export to CSV file with automatic filename
-            String filename = CSVExportUtil.exportAllLoansToCSV(loans);
+            // Stream all loans from the database straight into a CSV file with automatic filename
+            String filename = BusyDialog.await("Exporting loans...",
+                    AsyncExecutor.supply(() -> CSVExportUtil.streamAllLoansToCSV(loanService::streamAllLoans)));
             // Confirm export success to user
             loanView.showSuccessMessage("All loans exported successfully to: " + filename);
         } catch (Exception e) {
@@ -108,10 +134,15 @@ public class LoanController {
 
     // Retrieves and displays only overdue loans (books past due date)
     public void showOverdueLoans() {
-        // Get list of overdue loans from database
-        List<Loan> loans = loanService.getOverdueLoans();
-        // Display overdue loans to user
-        loanView.displayLoans(loans);
+        try {
+            // Get list of overdue loans from database while the UI stays responsive
+            List<Loan> loans = BusyDialog.await("Loading overdue loans...", loanService.getOverdueLoansAsync());
+            // Display overdue loans to user
+            loanView.displayLoans(loans);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            loanView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Retrieves and displays loans for a specific member
@@ -120,7 +151,7 @@ public class LoanController {
             // Get member ID from user input
             Integer memberId = loanView.askForMemberId();
             // Get all loans for this member from database
-            List<Loan> loans = loanService.getLoansByMember(memberId);
+            List<Loan> loans = BusyDialog.await("Loading loans...", loanService.getLoansByMemberAsync(memberId));
             // Display member's loans to user
             loanView.displayLoans(loans);
 
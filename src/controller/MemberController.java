@@ -3,7 +3,10 @@ package controller;
 import domain.Member;
 import exceptions.BusinessException;
 import service.MemberService;
+import util.AsyncExecutor;
 import util.CSVExportUtil;
+import view.BusyDialog;
+import view.PagedTableModel;
 import view.MemberView;
 import java.util.List;
 
@@ -13,9 +16,9 @@ public class MemberController {
     // Handles user interface for member-related screens
     private MemberView memberView;
 
-    // Constructor - creates new instances of service and view
-    public MemberController() {
-        this.memberService = new MemberService();
+    // Constructor used by ApplicationContext - works on the shared service
+    public MemberController(MemberService memberService) {
+        this.memberService = memberService;
         this.memberView = new MemberView();
     }
 
@@ -24,8 +27,8 @@ public class MemberController {
         try {
             // Get member information from user input
             Member member = memberView.showAddMemberForm();
-            // Save member to database through service layer
-            memberService.addMember(member);
+            // Save member to database through service layer (off the UI thread)
+            BusyDialog.awaitWrite("Saving member...", AsyncExecutor.run(() -> memberService.addMember(member)));
             // Show confirmation message to user
             memberView.showSuccessMessage("Member added successfully");
         } catch (BusinessException e) {
@@ -39,18 +42,43 @@ public class MemberController {
 
     // Retrieves and displays all members in the system
     public void showAllMembers() {
-        // Get complete list of members from database
-        List<Member> members = memberService.getAllMembers();
-        // Display the list to the user
-        memberView.displayMembers(members);
+        try {
+            // Count members in the background; rows are then fetched page by page as the table scrolls
+            PagedTableModel<Member> model = BusyDialog.await("Loading members...", AsyncExecutor.supply(() ->
+                    memberView.createMemberTableModel(new PagedTableModel.PageSource<>() {
+                        public int count() {
+                            return memberService.countMembers();
+                        }
+
+                        public List<Member> fetchAfter(Member last, int limit) {
+                            return last == null
+                                    ? memberService.getMembersPage(null, null, null, limit)
+                                    : memberService.getMembersPage(last.getFirstName(), last.getLastName(), last.getId(), limit);
+                        }
+
+                        public List<Member> fetchAt(int offset, int limit) {
+                            return memberService.getMembersAt(offset, limit);
+                        }
+                    })));
+            // Display the table to the user
+            memberView.displayMemberTable(model);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            memberView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Retrieves and displays only active members
     public void showActiveMembers() {
-        // Get list of active members from database
-        List<Member> members = memberService.getActiveMembers();
-        // Display active members to user
-        memberView.displayMembers(members);
+        try {
+            // Get list of active members from database while the UI stays responsive
+            List<Member> members = BusyDialog.await("Loading members...", memberService.getActiveMembersAsync());
+            // Display active members to user
+            memberView.displayMembers(members);
+        } catch (Exception e) {
+            // Show error (including a cancelled load)
+            memberView.showErrorMessage(e.getMessage());
+        }
     }
 
     // Handles updating an existing member's information
@@ -59,13 +87,13 @@ public class MemberController {
             // Get ID number to identify which member to update
             String idNumber = memberView.askForIdNumber();
             // Find the member in database, throw error if not found
-            Member member = memberService.getMemberByIdNumber(idNumber)
+            Member member = BusyDialog.await("Looking up member...", memberService.getMemberByIdNumberAsync(idNumber))
                     .orElseThrow(() -> new BusinessException("Member not found"));
 
             // Get updated information from user
             Member updatedMember = memberView.showUpdateMemberForm(member);
             // Save changes to database
-            memberService.updateMember(updatedMember);
+            BusyDialog.awaitWrite("Saving member...", AsyncExecutor.run(() -> memberService.updateMember(updatedMember)));
             // Confirm successful update to user
             memberView.showSuccessMessage("Member updated successfully");
 
@@ -81,10 +109,9 @@ public class MemberController {
     // Exports all members to a CSV file for reporting
     public void exportMembersToCSV() {
         try {
-            // Get all members from database
-            List<Member> members = memberService.getAllMembers();
-            // Export to CSV file with automatic filename
-            String filename = CSVExportUtil.exportMembersToCSV(members);
+            // Stream members from the database straight into a CSV file with automatic filename
+            String filename = BusyDialog.await("Exporting members...",
+                    AsyncExecutor.supply(() -> CSVExportUtil.streamMembersToCSV(memberService::streamAllMembers)));
             // Confirm export success to user
             memberView.showSuccessMessage("Members exported successfully to: " + filename);
         } catch (Exception e) {
@@ -99,13 +126,13 @@ public class MemberController {
             // Get ID number to identify which member to deactivate
             String idNumber = memberView.askForIdNumber();
             // Find the member in database, throw error if not found
-            Member member = memberService.getMemberByIdNumber(idNumber)
+            Member member = BusyDialog.await("Looking up member...", memberService.getMemberByIdNumberAsync(idNumber))
                     .orElseThrow(() -> new BusinessException("Member not found"));
 
             // Ask user to confirm deactivation
             if (memberView.confirmDeactivation(member)) {
                 // Deactivate member in database (soft delete)
-                memberService.deactivateMember(member.getId());
+                BusyDialog.awaitWrite("Deactivating member...", AsyncExecutor.run(() -> memberService.deactivateMember(member.getId())));
                 // Confirm successful deactivation
                 memberView.showSuccessMessage("Member deactivated successfully");
             }
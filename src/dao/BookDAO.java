@@ -1,28 +1,66 @@
 package dao;
 
 import domain.Book;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import util.QueryCanceller;
 
 public interface BookDAO {
     // Saves a new book to the database
     void save(Book book);
+    // Saves many new books in one JDBC batch (sent as multi-row INSERTs by the driver)
+    void saveAll(List<Book> books);
     // Finds a book by its unique identifier, returns Optional to handle null cases
     Optional<Book> findById(Integer id);
     // Finds a book by ISBN number, returns Optional to handle null cases
     Optional<Book> findByIsbn(String isbn);
     // Retrieves all books from the database
     List<Book> findAll();
+    // Pushes every book, ordered by title, to the consumer one at a time (nothing is kept in memory)
+    void streamAll(Consumer<Book> consumer);
+    // Retrieves the next page of books ordered by title, starting right after the given title/id
+    // Pass null for lastTitle and lastId to get the first page
+    List<Book> findAllAfter(String lastTitle, Integer lastId, int limit);
+    // Retrieves the books at the given position in title order (OFFSET; for jumping far into the list)
+    List<Book> findPageAt(int offset, int limit);
+    // Number of books in the catalog
+    int countAll();
     // Searches for books by title (typically partial match/search)
     List<Book> findByTitle(String title);
     // Searches for books by author (typically partial match/search)
     List<Book> findByAuthor(String author);
+    // Search-as-you-type variants: at most limit books whose title/author contains the text (taken literally),
+    // ordered by title; the query can be stopped through the canceller and gives up after search.queryTimeoutSeconds
+    // A cancelled search returns an empty list; a timeout or any other failure throws, so it is never
+    // mistaken for "no matches"
+    List<Book> findByTitle(String title, int limit, QueryCanceller canceller);
+    List<Book> findByAuthor(String author, int limit, QueryCanceller canceller);
     // Updates an existing book in the database
     void update(Book book);
     // Deletes a book by its unique identifier
     void delete(Integer id);
     // Checks if an ISBN number is unique in the database (for validation)
     boolean isIsbnUnique(String isbn);
+    // Pushes every ISBN in the catalog to the consumer one at a time (loads the uniqueness filter)
+    void streamIsbns(Consumer<String> consumer);
+    // Returns which of the given ISBNs already exist in the database (one query for the whole group)
+    Set<String> findExistingIsbns(Collection<String> isbns);
     // Updates the available copies count for a book (increment/decrement)
     void updateAvailableCopies(Integer bookId, Integer change);
+    // Applies several available-copies changes (book id -> change) as one JDBC batch
+    void updateAvailableCopies(Map<Integer, Integer> changesByBookId);
+    // Takes one copy only if one is still available (check and decrement in a single statement)
+    // Returns false when the book does not exist or has no copies left
+    boolean reserveCopy(Integer bookId);
+    // Takes one copy of each of the given (distinct) books with a single guarded UPDATE
+    // Returns false when at least one of them has no copy left; the caller must then roll back
+    boolean reserveCopies(Collection<Integer> bookIds);
+    // Takes one copy of the book and one slot on the member's active-loan counter with a single guarded UPDATE
+    // Returns false (and changes nothing) when no copy is left or the member is inactive or at maxActiveLoans;
+    // call inside the transaction that inserts the loan
+    boolean reserveCopyAndLoanSlot(Integer bookId, Integer memberId, int maxActiveLoans);
 }
\ No newline at end of file
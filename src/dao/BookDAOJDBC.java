@@ -4,9 +4,16 @@ import config.DatabaseConfig;
 import domain.Book;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
+import util.QueryCanceller;
 
 public class BookDAOJDBC implements BookDAO {
 
@@ -38,7 +45,7 @@ public class BookDAOJDBC implements BookDAO {
             }
 
             // Log successful book creation
-            DatabaseConfig.getLogger().info("Book saved: " + book.getIsbn());
+            DatabaseConfig.getLogger().fine(() -> "Book saved: " + book.getIsbn());
 
         } catch (SQLException e) {
             // Log and handle database errors
@@ -47,6 +54,53 @@ public class BookDAOJDBC implements BookDAO {
         }
     }
 
+    @Override
+    public void saveAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        // Same INSERT as save(); with rewriteBatchedStatements=true the driver sends the whole batch
+        // as multi-row INSERT statements instead of one round-trip per book
+        String sql = "INSERT INTO books (isbn, title, author, year_published, genre, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            // Add one set of parameters per book to the batch
+            for (Book book : books) {
+                stmt.setString(1, book.getIsbn());
+                stmt.setString(2, book.getTitle());
+                stmt.setString(3, book.getAuthor());
+                stmt.setObject(4, book.getYearPublished(), Types.INTEGER);
+                stmt.setString(5, book.getGenre());
+                stmt.setInt(6, book.getTotalCopies());
+                stmt.setInt(7, book.getAvailableCopies());
+                stmt.addBatch();
+            }
+
+            // Execute the whole batch
+            stmt.executeBatch();
+
+            // Retrieve the auto-generated book IDs, in insertion order
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Book book : books) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    book.setId(generatedKeys.getInt(1));
+                }
+            }
+
+            // Log successful batch
+            DatabaseConfig.getLogger().fine(() -> "Books batch saved: " + books.size());
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error saving books batch", e);
+            throw new RuntimeException("Error saving books batch", e);
+        }
+    }
+
     @Override
     public Optional<Book> findById(Integer id) {
         // SQL query to find book by primary key
@@ -66,7 +120,7 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding book by id: " + id, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding book by id: " + id);
         }
 
         // Return empty Optional if no book found
@@ -92,7 +146,7 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding book by ISBN: " + isbn, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding book by ISBN: " + isbn);
         }
 
         // Return empty Optional if no book found
@@ -124,6 +178,117 @@ public class BookDAOJDBC implements BookDAO {
         return books;
     }
 
+    @Override
+    public void streamAll(Consumer<Book> consumer) {
+        // SQL query to retrieve all books ordered by title, read through a streaming cursor
+        String sql = "SELECT * FROM books ORDER BY title";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Hand each row over as soon as it arrives
+            while (rs.next()) {
+                consumer.accept(mapResultSetToBook(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error streaming books", e);
+            throw new RuntimeException("Error streaming books", e);
+        }
+    }
+
+    @Override
+    public List<Book> findAllAfter(String lastTitle, Integer lastId, int limit) {
+        // Initialize list to store this page of books
+        List<Book> books = new ArrayList<>();
+        // Keyset pagination: seek past the last (title, id) seen instead of skipping rows with OFFSET,
+        // so every page costs the same no matter how deep into the catalog it is
+        boolean firstPage = lastId == null;
+        String sql = firstPage
+                ? "SELECT * FROM books ORDER BY title, id LIMIT ?"
+                : "SELECT * FROM books WHERE title > ? OR (title = ? AND id > ?) ORDER BY title, id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set the sort key of the last row seen, then the page size
+            int index = 1;
+            if (!firstPage) {
+                stmt.setString(index++, lastTitle);
+                stmt.setString(index++, lastTitle);
+                stmt.setInt(index++, lastId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Book objects
+            while (rs.next()) {
+                books.add(mapResultSetToBook(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding books page after: " + lastTitle + "/" + lastId);
+        }
+
+        // Return this page (empty list once past the end)
+        return books;
+    }
+
+    @Override
+    public List<Book> findPageAt(int offset, int limit) {
+        // Initialize list to store this page of books
+        List<Book> books = new ArrayList<>();
+        // OFFSET walks past the skipped rows, so this is only used when no keyset cursor is known
+        String sql = "SELECT * FROM books ORDER BY title, id LIMIT ? OFFSET ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set page size and position
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Book objects
+            while (rs.next()) {
+                books.add(mapResultSetToBook(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding books page at offset: " + offset);
+        }
+
+        // Return this page (empty list once past the end)
+        return books;
+    }
+
+    @Override
+    public int countAll() {
+        // SQL query to count the catalog (answered from the smallest index)
+        String sql = "SELECT COUNT(*) FROM books";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Return the count
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error counting books", e);
+        }
+
+        // Return 0 if nothing could be counted
+        return 0;
+    }
+
     @Override
     public List<Book> findByTitle(String title) {
         // Initialize list to store search results
@@ -145,7 +310,7 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding books by title: " + title, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding books by title: " + title);
         }
 
         // Return search results
@@ -173,13 +338,76 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding books by author: " + author, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding books by author: " + author);
+        }
+
+        // Return search results
+        return books;
+    }
+
+    @Override
+    public List<Book> findByTitle(String title, int limit, QueryCanceller canceller) {
+        return findContaining("title", title, limit, canceller);
+    }
+
+    @Override
+    public List<Book> findByAuthor(String author, int limit, QueryCanceller canceller) {
+        return findContaining("author", author, limit, canceller);
+    }
+
+    // Capped, cancellable LIKE search on one column (column names come from this class, never from input)
+    private List<Book> findContaining(String column, String text, int limit, QueryCanceller canceller) {
+        // Initialize list to store search results
+        List<Book> books = new ArrayList<>();
+        String sql = "SELECT * FROM books WHERE " + column + " LIKE ? ESCAPE '!' ORDER BY title LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // The typed text is matched literally: % and _ are escaped, not wildcards
+            stmt.setString(1, "%" + escapeLike(text) + "%");
+            stmt.setInt(2, limit);
+            // A slow scan must not keep a pooled connection busy while the user keeps typing
+            stmt.setQueryTimeout(DatabaseConfig.getIntSetting("search.queryTimeoutSeconds", 5));
+
+            canceller.attach(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Iterate through results and map to Book objects
+                while (rs.next()) {
+                    books.add(mapResultSetToBook(rs));
+                }
+            } finally {
+                canceller.detach();
+            }
+
+        } catch (SQLTimeoutException e) {
+            // Cancelled or timed out: MySQL reports both the same way, so ask the canceller which it was
+            if (canceller.isCancelled()) {
+                return new ArrayList<>();
+            }
+            DatabaseConfig.getLogger().warning(() -> "Book search by " + column + " timed out: " + text);
+            throw new RuntimeException("The search took too long, try a longer text", e);
+        } catch (SQLException e) {
+            // A superseded search is expected to fail; anything else is a real error
+            if (canceller.isCancelled()) {
+                return new ArrayList<>();
+            }
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error searching books by " + column + ": " + text);
+            throw new RuntimeException("Error searching books: " + e.getMessage(), e);
         }
 
         // Return search results
         return books;
     }
 
+    // Escapes the LIKE wildcards (and the escape character itself) in user text
+    private static String escapeLike(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     @Override
     public void update(Book book) {
         // SQL query to update existing book record
@@ -201,7 +429,7 @@ public class BookDAOJDBC implements BookDAO {
             // Execute the update operation
             stmt.executeUpdate();
             // Log successful update
-            DatabaseConfig.getLogger().info("Book updated: " + book.getIsbn());
+            DatabaseConfig.getLogger().fine(() -> "Book updated: " + book.getIsbn());
 
         } catch (SQLException e) {
             // Log and handle database errors
@@ -223,11 +451,11 @@ public class BookDAOJDBC implements BookDAO {
             // Execute the delete operation
             stmt.executeUpdate();
             // Log successful deletion
-            DatabaseConfig.getLogger().info("Book deleted: " + id);
+            DatabaseConfig.getLogger().fine(() -> "Book deleted: " + id);
 
         } catch (SQLException e) {
             // Log and handle database errors
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error deleting book: " + id, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error deleting book: " + id);
             throw new RuntimeException("Error deleting book", e);
         }
     }
@@ -251,13 +479,70 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error checking ISBN uniqueness: " + isbn, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error checking ISBN uniqueness: " + isbn);
         }
 
         // Return false in case of error or non-unique ISBN
         return false;
     }
 
+    @Override
+    public void streamIsbns(Consumer<String> consumer) {
+        // Only the ISBN column, read through a streaming cursor (answered from the UNIQUE index alone)
+        String sql = "SELECT isbn FROM books";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Hand each ISBN over as soon as it arrives
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error streaming ISBNs", e);
+            throw new RuntimeException("Error streaming ISBNs", e);
+        }
+    }
+
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        // Initialize set to store the ISBNs found
+        Set<String> existing = new HashSet<>();
+        if (isbns.isEmpty()) {
+            return existing;
+        }
+
+        // One IN (...) query for the whole group instead of one COUNT(*) per ISBN
+        String placeholders = String.join(", ", Collections.nCopies(isbns.size(), "?"));
+        String sql = "SELECT isbn FROM books WHERE isbn IN (" + placeholders + ")";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set one parameter per ISBN
+            int index = 1;
+            for (String isbn : isbns) {
+                stmt.setString(index++, isbn);
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            // Collect the ISBNs that already exist
+            while (rs.next()) {
+                existing.add(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error checking existing ISBNs", e);
+            throw new RuntimeException("Error checking existing ISBNs", e);
+        }
+
+        return existing;
+    }
+
     @Override
     public void updateAvailableCopies(Integer bookId, Integer change) {
         // SQL query to atomically update available copies count
@@ -274,11 +559,113 @@ public class BookDAOJDBC implements BookDAO {
 
         } catch (SQLException e) {
             // Log and handle database errors
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error updating available copies for book: " + bookId, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error updating available copies for book: " + bookId);
             throw new RuntimeException("Error updating available copies", e);
         }
     }
 
+    @Override
+    public void updateAvailableCopies(Map<Integer, Integer> changesByBookId) {
+        if (changesByBookId.isEmpty()) {
+            return;
+        }
+        // Same statement as the single-book version, sent to MySQL as one batch
+        String sql = "UPDATE books SET available_copies = available_copies + ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Add one change per book to the batch
+            for (Map.Entry<Integer, Integer> change : changesByBookId.entrySet()) {
+                stmt.setInt(1, change.getValue());
+                stmt.setInt(2, change.getKey());
+                stmt.addBatch();
+            }
+            // Execute all updates in one round-trip
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error updating available copies batch", e);
+            throw new RuntimeException("Error updating available copies", e);
+        }
+    }
+
+    @Override
+    public boolean reserveCopy(Integer bookId) {
+        // Guarded decrement: the WHERE clause only matches if a copy is left, so two desks can never
+        // both take the last copy - the second one simply updates 0 rows
+        String sql = "UPDATE books SET available_copies = available_copies - 1 WHERE id = ? AND available_copies > 0";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set the book ID parameter
+            stmt.setInt(1, bookId);
+            // Exactly one affected row means we got the copy
+            return stmt.executeUpdate() == 1;
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error reserving copy for book: " + bookId);
+            throw new RuntimeException("Error reserving book copy", e);
+        }
+    }
+
+    @Override
+    public boolean reserveCopyAndLoanSlot(Integer bookId, Integer memberId, int maxActiveLoans) {
+        // Two-table guarded update: the join only yields a row when a copy is left and the member is active
+        // and below the limit, and both rows stay locked until commit, so a checkout needs just this
+        // statement and the INSERT
+        String sql = "UPDATE books b JOIN members m ON m.id = ? " +
+                "SET b.available_copies = b.available_copies - 1, m.active_loans = m.active_loans + 1 " +
+                "WHERE b.id = ? AND b.available_copies > 0 AND m.active = TRUE AND m.active_loans < ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set parameters for the prepared statement
+            stmt.setInt(1, memberId);
+            stmt.setInt(2, bookId);
+            stmt.setInt(3, maxActiveLoans);
+            // Both rows (the book and the member) updated means the copy and the slot were taken
+            return stmt.executeUpdate() == 2;
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error reserving copy of book " + bookId + " for member: " + memberId);
+            throw new RuntimeException("Error reserving book copy", e);
+        }
+    }
+
+    @Override
+    public boolean reserveCopies(Collection<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return true;
+        }
+        // Same guard as reserveCopy, for the whole group at once: books without a copy left are not
+        // updated, so fewer affected rows than books means part of the group could not be reserved
+        String placeholders = String.join(", ", Collections.nCopies(bookIds.size(), "?"));
+        String sql = "UPDATE books SET available_copies = available_copies - 1 WHERE id IN (" + placeholders + ") AND available_copies > 0";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set one parameter per book ID
+            int index = 1;
+            for (Integer bookId : bookIds) {
+                stmt.setInt(index++, bookId);
+            }
+            // Every book must have been updated
+            return stmt.executeUpdate() == bookIds.size();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error reserving copies of books", e);
+            throw new RuntimeException("Error reserving book copies", e);
+        }
+    }
+
     // Helper method to map ResultSet row to Book object
     private Book mapResultSetToBook(ResultSet rs) throws SQLException {
         Book book = new Book();
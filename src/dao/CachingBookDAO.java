@@ -0,0 +1,317 @@
+package dao;
+
+import config.TransactionContext;
+import domain.Book;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import util.QueryCanceller;
+
+// Read-through cache in front of another BookDAO
+// findById and findByIsbn are answered from memory when possible; every write forgets the affected book
+public class CachingBookDAO implements BookDAO {
+    private static final Logger logger = Logger.getLogger(CachingBookDAO.class.getName());
+
+    // The real DAO that talks to the database
+    private final BookDAO delegate;
+    // Maximum number of books kept in memory
+    private final int maxSize;
+
+    // Books by id, in least-recently-used order (the eldest entry is evicted when the cache is full)
+    private final LinkedHashMap<Integer, Book> byId;
+    // Second index: ISBN -> book id, kept in sync with byId
+    private final Map<String, Integer> idByIsbn = new HashMap<>();
+    // Bumped on every invalidation; a database read that overlapped an invalidation is not cached
+    private long invalidations = 0;
+
+    // Statistics to help size the cache
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingBookDAO(BookDAO delegate, int maxSize) {
+        this.delegate = delegate;
+        this.maxSize = Math.max(1, maxSize);
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Book> eldest) {
+                if (size() > CachingBookDAO.this.maxSize) {
+                    idByIsbn.remove(eldest.getValue().getIsbn());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Book> findById(Integer id) {
+        // Try memory first
+        long stamp;
+        synchronized (this) {
+            Book cached = byId.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(copyOf(cached));
+            }
+            stamp = invalidations;
+        }
+
+        // Not cached: ask the database and remember the answer
+        misses.increment();
+        Optional<Book> book = delegate.findById(id);
+        book.ifPresent(found -> remember(found, stamp));
+        return book;
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        // Try memory first, going through the ISBN index
+        long stamp;
+        synchronized (this) {
+            Integer id = idByIsbn.get(isbn);
+            Book cached = id != null ? byId.get(id) : null;
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(copyOf(cached));
+            }
+            stamp = invalidations;
+        }
+
+        // Not cached: ask the database and remember the answer
+        misses.increment();
+        Optional<Book> book = delegate.findByIsbn(isbn);
+        book.ifPresent(found -> remember(found, stamp));
+        return book;
+    }
+
+    @Override
+    public void save(Book book) {
+        delegate.save(book);
+        // A new ISBN may replace a stale entry left behind by a deleted book
+        forgetIsbn(book.getIsbn());
+    }
+
+    @Override
+    public void saveAll(List<Book> books) {
+        delegate.saveAll(books);
+        for (Book book : books) {
+            forgetIsbn(book.getIsbn());
+        }
+    }
+
+    @Override
+    public void update(Book book) {
+        delegate.update(book);
+        forget(book.getId());
+        // The ISBN may have changed, so also drop whatever the new ISBN pointed to
+        forgetIsbn(book.getIsbn());
+    }
+
+    @Override
+    public void delete(Integer id) {
+        delegate.delete(id);
+        forget(id);
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer bookId, Integer change) {
+        delegate.updateAvailableCopies(bookId, change);
+        forget(bookId);
+    }
+
+    @Override
+    public void updateAvailableCopies(Map<Integer, Integer> changesByBookId) {
+        delegate.updateAvailableCopies(changesByBookId);
+        changesByBookId.keySet().forEach(this::forget);
+    }
+
+    @Override
+    public boolean reserveCopy(Integer bookId) {
+        boolean reserved = delegate.reserveCopy(bookId);
+        if (reserved) {
+            forget(bookId);
+        }
+        return reserved;
+    }
+
+    @Override
+    public boolean reserveCopyAndLoanSlot(Integer bookId, Integer memberId, int maxActiveLoans) {
+        boolean reserved = delegate.reserveCopyAndLoanSlot(bookId, memberId, maxActiveLoans);
+        if (reserved) {
+            forget(bookId);
+        }
+        return reserved;
+    }
+
+    @Override
+    public boolean reserveCopies(Collection<Integer> bookIds) {
+        boolean reserved = delegate.reserveCopies(bookIds);
+        // Some rows may have changed even when the reservation as a whole failed
+        bookIds.forEach(this::forget);
+        return reserved;
+    }
+
+    // The remaining operations return many rows or check uniqueness, so they always go to the database
+
+    @Override
+    public List<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void streamAll(Consumer<Book> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Book> findAllAfter(String lastTitle, Integer lastId, int limit) {
+        return delegate.findAllAfter(lastTitle, lastId, limit);
+    }
+
+    @Override
+    public List<Book> findPageAt(int offset, int limit) {
+        return delegate.findPageAt(offset, limit);
+    }
+
+    @Override
+    public int countAll() {
+        return delegate.countAll();
+    }
+
+    @Override
+    public List<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public List<Book> findByAuthor(String author) {
+        return delegate.findByAuthor(author);
+    }
+
+    @Override
+    public List<Book> findByTitle(String title, int limit, QueryCanceller canceller) {
+        return delegate.findByTitle(title, limit, canceller);
+    }
+
+    @Override
+    public List<Book> findByAuthor(String author, int limit, QueryCanceller canceller) {
+        return delegate.findByAuthor(author, limit, canceller);
+    }
+
+    @Override
+    public boolean isIsbnUnique(String isbn) {
+        return delegate.isIsbnUnique(isbn);
+    }
+
+    @Override
+    public void streamIsbns(Consumer<String> consumer) {
+        delegate.streamIsbns(consumer);
+    }
+
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        return delegate.findExistingIsbns(isbns);
+    }
+
+    // Number of lookups answered from memory
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    // Number of lookups that had to go to the database
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Number of books pushed out because the cache was full
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Share of lookups answered from memory (0.0 - 1.0)
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    // Number of books currently cached
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // One-line summary used when logging cache statistics
+    public String getStatistics() {
+        return String.format("Book cache: size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                size(), maxSize, getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+    }
+
+    // Stores a book read from the database
+    private void remember(Book book, long stamp) {
+        // Rows read inside a transaction may still be rolled back, so they are not shared
+        if (TransactionContext.isActive()) {
+            return;
+        }
+        synchronized (this) {
+            // Something was written while we were reading: our copy may already be out of date
+            if (stamp != invalidations) {
+                return;
+            }
+            Book previous = byId.put(book.getId(), copyOf(book));
+            if (previous != null && !previous.getIsbn().equals(book.getIsbn())) {
+                idByIsbn.remove(previous.getIsbn());
+            }
+            idByIsbn.put(book.getIsbn(), book.getId());
+        }
+        logger.finest(() -> "Cached book " + book.getId());
+    }
+
+    // Drops a book now and again when the surrounding transaction ends,
+    // so nobody keeps the value read by another thread while the change was uncommitted
+    private void forget(Integer id) {
+        evict(id);
+        TransactionContext.onEnd(() -> evict(id));
+    }
+
+    private void forgetIsbn(String isbn) {
+        Integer id;
+        synchronized (this) {
+            id = idByIsbn.get(isbn);
+        }
+        if (id != null) {
+            forget(id);
+        }
+    }
+
+    private synchronized void evict(Integer id) {
+        invalidations++;
+        Book removed = byId.remove(id);
+        if (removed != null) {
+            idByIsbn.remove(removed.getIsbn());
+        }
+    }
+
+    // Callers may modify the books they receive, so the cache only ever hands out copies
+    private static Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setIsbn(book.getIsbn());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setYearPublished(book.getYearPublished());
+        copy.setGenre(book.getGenre());
+        copy.setTotalCopies(book.getTotalCopies());
+        copy.setAvailableCopies(book.getAvailableCopies());
+        copy.setCreatedAt(book.getCreatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,24 @@
+package dao;
+
+// What JMX tools (jconsole, VisualVM...) show for one DAO method
+// Times are in microseconds and exclude the wait for a pooled connection
+public interface DaoMethodStatsMXBean {
+    // Number of calls since startup
+    long getCount();
+
+    // Number of calls that threw an exception
+    long getErrorCount();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    // Total time spent waiting for a pooled connection inside this method
+    long getPoolWaitMicros();
+}
@@ -0,0 +1,149 @@
+package dao;
+
+import config.ConnectionPool;
+import config.DatabaseConfig;
+import util.JmxUtil;
+import util.LatencyHistogram;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// Call statistics of every instrumented DAO method (see InstrumentedDAO)
+// Published over JMX as libronova:type=DAO,dao=<interface>,method=<name> and logged periodically
+public class DaoMetrics {
+    private static final Logger logger = Logger.getLogger(DaoMetrics.class.getName());
+
+    // "BookDAO.findById" -> statistics of that method
+    private static final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService reporter;
+    // Pool figures at the previous summary, so each summary line covers only its own interval
+    private static LatencyHistogram.Snapshot lastPoolWait;
+
+    // Statistics of one method, created and published on first use
+    static MethodStats forMethod(String dao, String method) {
+        return methods.computeIfAbsent(dao + "." + method, key -> {
+            MethodStats stats = new MethodStats();
+            JmxUtil.register("type=DAO,dao=" + dao + ",method=" + method, stats);
+            return stats;
+        });
+    }
+
+    // Starts logging a summary line every metrics.summaryIntervalSeconds (0 turns it off)
+    static synchronized void startSummaryLog() {
+        if (reporter != null) {
+            return;
+        }
+        long interval = DatabaseConfig.getLongSetting("metrics.summaryIntervalSeconds", 60L);
+        if (interval <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "libronova-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            String summary = summarizeInterval();
+            if (summary != null) {
+                logger.info(summary);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    // One line with the methods called since the previous summary, slowest figures included
+    // Returns null when nothing happened
+    static synchronized String summarizeInterval() {
+        StringBuilder line = new StringBuilder("DAO metrics since last report:");
+        boolean any = false;
+
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methods).entrySet()) {
+            MethodStats stats = entry.getValue();
+            LatencyHistogram.Snapshot current = stats.latency.snapshot();
+            LatencyHistogram.Snapshot interval = current.since(stats.lastReported);
+            long errors = stats.errors.sum();
+            long intervalErrors = errors - stats.lastReportedErrors;
+            stats.lastReported = current;
+            stats.lastReportedErrors = errors;
+            if (interval.getCount() == 0) {
+                continue;
+            }
+            any = true;
+            line.append(String.format(" | %s n=%d err=%d p50=%dus p99=%dus p999=%dus",
+                    entry.getKey(), interval.getCount(), intervalErrors,
+                    interval.getPercentileMicros(0.50), interval.getPercentileMicros(0.99),
+                    interval.getPercentileMicros(0.999)));
+        }
+
+        ConnectionPool pool = DatabaseConfig.getPoolIfStarted();
+        if (pool != null) {
+            LatencyHistogram.Snapshot current = pool.getWaitSnapshot();
+            LatencyHistogram.Snapshot interval = current.since(lastPoolWait);
+            lastPoolWait = current;
+            if (interval.getCount() > 0) {
+                any = true;
+                line.append(String.format(" | pool wait n=%d p50=%dus p99=%dus p999=%dus active=%d/%d timeouts=%d",
+                        interval.getCount(), interval.getPercentileMicros(0.50), interval.getPercentileMicros(0.99),
+                        interval.getPercentileMicros(0.999), pool.getActiveConnections(), pool.getOpenConnections(),
+                        pool.getTimeoutCount()));
+            }
+        }
+        return any ? line.toString() : null;
+    }
+
+    // Figures of one DAO method; query time and pool wait are recorded separately
+    static class MethodStats implements DaoMethodStatsMXBean {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder poolWaitNanos = new LongAdder();
+        // Only touched by summarizeInterval (synchronized)
+        private LatencyHistogram.Snapshot lastReported;
+        private long lastReportedErrors;
+
+        void record(long queryNanos, long waitNanos, boolean failed) {
+            latency.record(queryNanos);
+            if (waitNanos > 0) {
+                poolWaitNanos.add(waitNanos);
+            }
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        public double getMeanMicros() {
+            return latency.snapshot().getMeanMicros();
+        }
+
+        public long getP50Micros() {
+            return latency.snapshot().getPercentileMicros(0.50);
+        }
+
+        public long getP99Micros() {
+            return latency.snapshot().getPercentileMicros(0.99);
+        }
+
+        public long getP999Micros() {
+            return latency.snapshot().getPercentileMicros(0.999);
+        }
+
+        public long getMaxMicros() {
+            return latency.snapshot().getMaxMicros();
+        }
+
+        public long getPoolWaitMicros() {
+            return poolWaitNanos.sum() / 1000;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dao;
+
+import config.ConnectionPool;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+// Wraps a DAO so every call is timed and counted in DaoMetrics, without touching the DAO code itself
+// Usage: BookDAO dao = InstrumentedDAO.wrap(BookDAO.class, new BookDAOJDBC());
+// Streaming methods (streamAll...) include the time the caller's consumer spends on each row
+public class InstrumentedDAO implements InvocationHandler {
+    private final Object target;
+    // Statistics looked up once per method instead of on every call
+    private final Map<Method, DaoMetrics.MethodStats> statsByMethod = new HashMap<>();
+
+    private InstrumentedDAO(Class<?> type, Object target) {
+        this.target = target;
+        for (Method method : type.getMethods()) {
+            statsByMethod.put(method, DaoMetrics.forMethod(type.getSimpleName(), method.getName()));
+        }
+    }
+
+    // Returns a DAO of the given interface that records metrics and forwards every call to target
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<T> type, T target) {
+        DaoMetrics.startSummaryLog();
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new InstrumentedDAO(type, target));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        DaoMetrics.MethodStats stats = statsByMethod.get(method);
+        if (stats == null) {
+            // equals, hashCode, toString...
+            return forward(method, args);
+        }
+
+        long waitBefore = ConnectionPool.getThreadWaitNanos();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = forward(method, args);
+            failed = false;
+            return result;
+        } finally {
+            // Time spent queueing for a connection is reported apart from the query itself
+            long waited = ConnectionPool.getThreadWaitNanos() - waitBefore;
+            stats.record(System.nanoTime() - start - waited, waited, failed);
+        }
+    }
+
+    private Object forward(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            // Let callers see the DAO's own exception, not the reflection wrapper
+            throw e.getCause();
+        }
+    }
+}
@@ -1,24 +1,76 @@
 package dao;
 
 import domain.Loan;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LoanDAO {
+    // Receives one loans row as plain values, without building a Loan (see streamRows)
+    // Dates are epoch days (days since 1970-01-01), returnDay is -1 while the book is out, and the fine is in cents
+    @FunctionalInterface
+    interface LoanRowConsumer {
+        void accept(int id, int bookId, int memberId, int loanDay, int dueDay, int returnDay,
+                    String status, long fineCents, String bookTitle);
+    }
+
     // Saves a new loan to the database
     void save(Loan loan);
     // Finds a loan by its unique identifier, returns Optional to handle null cases
     Optional<Loan> findById(Integer id);
     // Retrieves all loans from the database
     List<Loan> findAll();
+    // Pushes every loan, ordered by due date, to the consumer one at a time (nothing is kept in memory)
+    void streamAll(Consumer<Loan> consumer);
+    // Pushes every overdue loan, ordered by due date, to the consumer one at a time
+    void streamOverdue(Consumer<Loan> consumer);
+    // Pushes every loan, ordered by id, to the consumer as plain values (for in-memory analytics)
+    void streamRows(LoanRowConsumer consumer);
+    // Retrieves the next page of loans ordered by due date, starting right after the given due date/id
+    // Pass null for lastDueDate and lastId to get the first page
+    List<Loan> findAllAfter(LocalDate lastDueDate, Integer lastId, int limit);
+    // Retrieves the loans at the given position in due date order (OFFSET; for jumping far into the list)
+    List<Loan> findPageAt(int offset, int limit);
+    // Number of loans ever made
+    int countAll();
     // Finds all loans associated with a specific member ID
     List<Loan> findByMemberId(Integer memberId);
-    // Retrieves all active loans (loans that haven't been returned yet)
+    // The member's first loans in due date order, at most limit of them
+    List<Loan> findByMemberId(Integer memberId, int limit);
+    // Retrieves all active loans (loans that haven't been returned yet, OVERDUE ones included)
     List<Loan> findActiveLoans();
-    // Retrieves all overdue loans (loans past their due date that haven't been returned)
+    // Retrieves all overdue loans (marked OVERDUE by the overdue sweeper)
     List<Loan> findOverdueLoans();
+    // The first overdue loans in due date order, at most limit of them
+    List<Loan> findOverdueLoans(int limit);
+    // Retrieves the loans still out (ACTIVE or OVERDUE) due between first and last inclusive, in due date order
+    // (only loan columns are read - no book title or member name)
+    List<Loan> findOutstandingDueBetween(LocalDate first, LocalDate last);
+    // Loads the given loans with one IN (...) query and locks their rows until the transaction ends
+    // (only loan columns are read - no book title or member name); ids that do not exist are simply missing
+    List<Loan> findByIdsForUpdate(Collection<Integer> ids);
     // Updates an existing loan in the database
     void update(Loan loan);
-    // Counts the number of active loans for a specific member (for loan limit validation)
+    // Updates several loans (return date, status, fine) as one JDBC batch
+    void updateAll(List<Loan> loans);
+    // Counts the number of active loans for a specific member (reads the members.active_loans counter)
     int countActiveLoansByMember(Integer memberId);
+    // Adds count to the member's active-loan counter if the member is active and stays within the limit
+    // Returns false (and changes nothing) otherwise; call inside the transaction that creates the loans
+    boolean reserveLoanSlots(Integer memberId, int count, int maxActiveLoans);
+    // Takes returned loans off the members' counters (member id -> loans returned) as one batch
+    void releaseLoanSlots(Map<Integer, Integer> countsByMemberId);
+    // Marks up to batchSize ACTIVE loans due before today as OVERDUE with the fine accrued so far
+    // Returns how many were marked; call again until it returns 0
+    int markOverdue(LocalDate today, double finePerDay, int batchSize);
+    // Sets the stored fine of up to batchSize OVERDUE loans to the amount accrued by today (rounded to cents)
+    // Returns how many were updated; call again until it returns 0
+    int accrueOverdueFines(LocalDate today, double finePerDay, int batchSize);
+    // Recomputes every member's active-loan counter from the loans table; returns how many were wrong
+    int reconcileActiveLoanCounters();
+    // Saves several new loans as one JDBC batch and fills in their generated IDs
+    void saveAll(List<Loan> loans);
 }
\ No newline at end of file
@@ -2,10 +2,16 @@ package dao;
 
 import config.DatabaseConfig;
 import domain.Loan;
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class LoanDAOJDBC implements LoanDAO {
@@ -38,7 +44,7 @@ public class LoanDAOJDBC implements LoanDAO {
             }
 
             // Log successful loan creation
-            DatabaseConfig.getLogger().info("Loan saved for book ID: " + loan.getBookId() + ", member ID: " + loan.getMemberId());
+            DatabaseConfig.getLogger().fine(() -> "Loan saved for book ID: " + loan.getBookId() + ", member ID: " + loan.getMemberId());
 
         } catch (SQLException e) {
             // Log and handle database errors
@@ -70,7 +76,7 @@ public class LoanDAOJDBC implements LoanDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding loan by id: " + id, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding loan by id: " + id);
         }
 
         // Return empty Optional if no loan found
@@ -106,8 +112,162 @@ public class LoanDAOJDBC implements LoanDAO {
         return loans;
     }
 
+    @Override
+    public void streamAll(Consumer<Loan> consumer) {
+        // SQL query with JOINs to get all loans with book and member details
+        String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
+                "FROM loans l " +
+                "JOIN books b ON l.book_id = b.id " +
+                "JOIN members m ON l.member_id = m.id " +
+                "ORDER BY l.due_date";
+        streamLoans(sql, consumer, "Error streaming loans");
+    }
+
+    @Override
+    public void streamOverdue(Consumer<Loan> consumer) {
+        // SQL query to find loans the overdue sweeper has marked OVERDUE
+        // (an equality lookup on the status/due date index, already in due date order)
+        String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
+                "FROM loans l " +
+                "JOIN books b ON l.book_id = b.id " +
+                "JOIN members m ON l.member_id = m.id " +
+                "WHERE l.status = 'OVERDUE' " +
+                "ORDER BY l.due_date";
+        streamLoans(sql, consumer, "Error streaming overdue loans");
+    }
+
+    @Override
+    public void streamRows(LoanRowConsumer consumer) {
+        // Only the columns analytics need, with dates and fines already turned into numbers by MySQL,
+        // so reading a row creates no Date or BigDecimal objects (only the title string)
+        String sql = "SELECT l.id, l.book_id, l.member_id, " +
+                "DATEDIFF(l.loan_date, '1970-01-01') AS loan_day, " +
+                "DATEDIFF(l.due_date, '1970-01-01') AS due_day, " +
+                "COALESCE(DATEDIFF(l.return_date, '1970-01-01'), -1) AS return_day, " +
+                "l.status, ROUND(l.fine_amount * 100) AS fine_cents, b.title " +
+                "FROM loans l " +
+                "JOIN books b ON l.book_id = b.id " +
+                "ORDER BY l.id";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                        rs.getInt(6), rs.getString(7), rs.getLong(8), rs.getString(9));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error streaming loan rows", e);
+            throw new RuntimeException("Error streaming loan rows", e);
+        }
+    }
+
+    @Override
+    public List<Loan> findAllAfter(LocalDate lastDueDate, Integer lastId, int limit) {
+        // Initialize list to store this page of loans
+        List<Loan> loans = new ArrayList<>();
+        // Keyset pagination: seek past the last (due date, id) seen instead of skipping rows with OFFSET
+        boolean firstPage = lastId == null;
+        String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
+                "FROM loans l " +
+                "JOIN books b ON l.book_id = b.id " +
+                "JOIN members m ON l.member_id = m.id " +
+                (firstPage ? "" : "WHERE l.due_date > ? OR (l.due_date = ? AND l.id > ?) ") +
+                "ORDER BY l.due_date, l.id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set the sort key of the last row seen, then the page size
+            int index = 1;
+            if (!firstPage) {
+                stmt.setDate(index++, Date.valueOf(lastDueDate));
+                stmt.setDate(index++, Date.valueOf(lastDueDate));
+                stmt.setInt(index++, lastId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Loan objects
+            while (rs.next()) {
+                loans.add(mapResultSetToLoan(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding loans page after: " + lastDueDate + "/" + lastId);
+        }
+
+        // Return this page (empty list once past the end)
+        return loans;
+    }
+
+    @Override
+    public List<Loan> findPageAt(int offset, int limit) {
+        // Initialize list to store this page of loans
+        List<Loan> loans = new ArrayList<>();
+        // OFFSET walks past the skipped rows, so this is only used when no keyset cursor is known
+        String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
+                "FROM loans l " +
+                "JOIN books b ON l.book_id = b.id " +
+                "JOIN members m ON l.member_id = m.id " +
+                "ORDER BY l.due_date, l.id LIMIT ? OFFSET ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set page size and position
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Loan objects
+            while (rs.next()) {
+                loans.add(mapResultSetToLoan(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding loans page at offset: " + offset);
+        }
+
+        // Return this page (empty list once past the end)
+        return loans;
+    }
+
+    @Override
+    public int countAll() {
+        // SQL query to count every loan
+        String sql = "SELECT COUNT(*) FROM loans";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Return the count
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error counting loans", e);
+        }
+
+        // Return 0 if nothing could be counted
+        return 0;
+    }
+
     @Override
     public List<Loan> findByMemberId(Integer memberId) {
+        return findByMemberId(memberId, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Loan> findByMemberId(Integer memberId, int limit) {
         // Initialize list to store member's loans
         List<Loan> loans = new ArrayList<>();
         // SQL query with JOINs to get loans for specific member
@@ -116,13 +276,15 @@ public class LoanDAOJDBC implements LoanDAO {
                 "JOIN books b ON l.book_id = b.id " +
                 "JOIN members m ON l.member_id = m.id " +
                 "WHERE l.member_id = ? " +
-                "ORDER BY l.due_date";
+                "ORDER BY l.due_date, l.id " +
+                "LIMIT ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            // Set the member ID parameter
+            // Set the member ID and limit parameters
             stmt.setInt(1, memberId);
+            stmt.setInt(2, limit);
             ResultSet rs = stmt.executeQuery();
 
             // Iterate through results and map to Loan objects
@@ -132,7 +294,7 @@ public class LoanDAOJDBC implements LoanDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error finding loans by member: " + memberId, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding loans by member: " + memberId);
         }
 
         // Return member's loans
@@ -143,12 +305,12 @@ public class LoanDAOJDBC implements LoanDAO {
     public List<Loan> findActiveLoans() {
         // Initialize list to store active loans
         List<Loan> loans = new ArrayList<>();
-        // SQL query to find all active (non-returned) loans
+        // SQL query to find all active (non-returned) loans, overdue ones included
         String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
                 "FROM loans l " +
                 "JOIN books b ON l.book_id = b.id " +
                 "JOIN members m ON l.member_id = m.id " +
-                "WHERE l.status = 'ACTIVE' " +
+                "WHERE l.status IN ('ACTIVE', 'OVERDUE') " +
                 "ORDER BY l.due_date";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -169,25 +331,65 @@ public class LoanDAOJDBC implements LoanDAO {
         return loans;
     }
 
+    @Override
+    public List<Loan> findOutstandingDueBetween(LocalDate first, LocalDate last) {
+        // Initialize list to store the loans found
+        List<Loan> loans = new ArrayList<>();
+        // Two range scans on the status/due date index, one per outstanding status
+        String sql = "SELECT * FROM loans " +
+                "WHERE status IN ('ACTIVE', 'OVERDUE') AND due_date BETWEEN ? AND ? " +
+                "ORDER BY due_date, id";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set the due date window
+            stmt.setDate(1, Date.valueOf(first));
+            stmt.setDate(2, Date.valueOf(last));
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Loan objects
+            while (rs.next()) {
+                loans.add(mapLoanColumns(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log database error
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error finding loans due between " + first + " and " + last);
+        }
+
+        // Return the loans found
+        return loans;
+    }
+
     @Override
     public List<Loan> findOverdueLoans() {
+        return findOverdueLoans(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Loan> findOverdueLoans(int limit) {
         // Initialize list to store overdue loans
         List<Loan> loans = new ArrayList<>();
-        // SQL query to find active loans past their due date
+        // SQL query to find loans the overdue sweeper has marked OVERDUE
+        // (an equality lookup on the status/due date index, already in due date order)
         String sql = "SELECT l.*, b.title as book_title, b.isbn as book_isbn, m.first_name, m.last_name " +
                 "FROM loans l " +
                 "JOIN books b ON l.book_id = b.id " +
                 "JOIN members m ON l.member_id = m.id " +
-                "WHERE l.status = 'ACTIVE' AND l.due_date < CURDATE() " +
-                "ORDER BY l.due_date";
+                "WHERE l.status = 'OVERDUE' " +
+                "ORDER BY l.due_date, l.id " +
+                "LIMIT ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            // Iterate through results and map to Loan objects
-            while (rs.next()) {
-                loans.add(mapResultSetToLoan(rs));
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Iterate through results and map to Loan objects
+                while (rs.next()) {
+                    loans.add(mapResultSetToLoan(rs));
+                }
             }
 
         } catch (SQLException e) {
@@ -199,6 +401,41 @@ public class LoanDAOJDBC implements LoanDAO {
         return loans;
     }
 
+    @Override
+    public List<Loan> findByIdsForUpdate(Collection<Integer> ids) {
+        // Initialize list to store the loans found
+        List<Loan> loans = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return loans;
+        }
+        // One IN (...) query for the whole group; FOR UPDATE stops a second desk returning the same loans meanwhile
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT * FROM loans WHERE id IN (" + placeholders + ") FOR UPDATE";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set one parameter per loan ID
+            int index = 1;
+            for (Integer id : ids) {
+                stmt.setInt(index++, id);
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            // Map the loan columns only (the JOINed display fields stay empty)
+            while (rs.next()) {
+                loans.add(mapLoanColumns(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error loading loans by id", e);
+            throw new RuntimeException("Error loading loans", e);
+        }
+
+        return loans;
+    }
+
     @Override
     public void update(Loan loan) {
         // SQL query to update loan information (primarily for returns)
@@ -216,7 +453,7 @@ public class LoanDAOJDBC implements LoanDAO {
             // Execute the update operation
             stmt.executeUpdate();
             // Log successful update
-            DatabaseConfig.getLogger().info("Loan updated: " + loan.getId());
+            DatabaseConfig.getLogger().fine(() -> "Loan updated: " + loan.getId());
 
         } catch (SQLException e) {
             // Log and handle database errors
@@ -225,10 +462,40 @@ public class LoanDAOJDBC implements LoanDAO {
         }
     }
 
+    @Override
+    public void updateAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        // Same statement as update(), sent to MySQL as one batch
+        String sql = "UPDATE loans SET return_date = ?, status = ?, fine_amount = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Add one update per loan to the batch
+            for (Loan loan : loans) {
+                stmt.setObject(1, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null, Types.DATE);
+                stmt.setString(2, loan.getStatus());
+                stmt.setDouble(3, loan.getFineAmount());
+                stmt.setInt(4, loan.getId());
+                stmt.addBatch();
+            }
+            // Execute all updates in one round-trip
+            stmt.executeBatch();
+            DatabaseConfig.getLogger().fine(() -> "Loans batch updated: " + loans.size());
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error updating loans batch", e);
+            throw new RuntimeException("Error updating loans", e);
+        }
+    }
+
     @Override
     public int countActiveLoansByMember(Integer memberId) {
-        // SQL query to count active loans for a member (for validation)
-        String sql = "SELECT COUNT(*) FROM loans WHERE member_id = ? AND status = 'ACTIVE'";
+        // Read the member's maintained counter (a primary-key lookup instead of counting loans)
+        String sql = "SELECT active_loans FROM members WHERE id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -244,15 +511,219 @@ public class LoanDAOJDBC implements LoanDAO {
 
         } catch (SQLException e) {
             // Log database error
-            DatabaseConfig.getLogger().log(Level.SEVERE, "Error counting active loans for member: " + memberId, e);
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error counting active loans for member: " + memberId);
         }
 
         // Return 0 in case of error or no active loans
         return 0;
     }
 
+    @Override
+    public boolean reserveLoanSlots(Integer memberId, int count, int maxActiveLoans) {
+        // Guarded increment: the WHERE clause only matches an active member with room for count more loans,
+        // and the row stays locked until commit, so two desks can never both push a member over the limit
+        String sql = "UPDATE members SET active_loans = active_loans + ? " +
+                "WHERE id = ? AND active = TRUE AND active_loans + ? <= ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set parameters for the prepared statement
+            stmt.setInt(1, count);
+            stmt.setInt(2, memberId);
+            stmt.setInt(3, count);
+            stmt.setInt(4, maxActiveLoans);
+            // Exactly one affected row means the slots were taken
+            return stmt.executeUpdate() == 1;
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, e, () -> "Error reserving loan slots for member: " + memberId);
+            throw new RuntimeException("Error checking member eligibility", e);
+        }
+    }
+
+    @Override
+    public void releaseLoanSlots(Map<Integer, Integer> countsByMemberId) {
+        if (countsByMemberId.isEmpty()) {
+            return;
+        }
+        // One decrement per member, sent as a batch; never below zero even if the counter had drifted
+        String sql = "UPDATE members SET active_loans = GREATEST(active_loans - ?, 0) WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Add one decrement per member to the batch
+            for (Map.Entry<Integer, Integer> release : countsByMemberId.entrySet()) {
+                stmt.setInt(1, release.getValue());
+                stmt.setInt(2, release.getKey());
+                stmt.addBatch();
+            }
+            // Execute all updates in one round-trip
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error releasing loan slots", e);
+            throw new RuntimeException("Error updating active loan counters", e);
+        }
+    }
+
+    @Override
+    public int reconcileActiveLoanCounters() {
+        // Recount from the loans table (overdue loans are still out) and fix only the members whose counter is wrong
+        String sql = "UPDATE members m " +
+                "LEFT JOIN (SELECT member_id, COUNT(*) AS loans FROM loans WHERE status IN ('ACTIVE', 'OVERDUE') GROUP BY member_id) a " +
+                "ON a.member_id = m.id " +
+                "SET m.active_loans = COALESCE(a.loans, 0) " +
+                "WHERE m.active_loans <> COALESCE(a.loans, 0)";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // The number of affected rows is the number of counters that had drifted
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error reconciling active loan counters", e);
+            throw new RuntimeException("Error reconciling active loan counters", e);
+        }
+    }
+
+    @Override
+    public int markOverdue(LocalDate today, double finePerDay, int batchSize) {
+        // Flips at most batchSize expired ACTIVE loans to OVERDUE and stores the fine accrued so far
+        // Rows leave the ACTIVE set as they are updated, so repeating the call walks through all of them
+        String sql = "UPDATE loans SET status = 'OVERDUE', fine_amount = ROUND(DATEDIFF(?, due_date) * ?, 2) " +
+                "WHERE status = 'ACTIVE' AND due_date < ? " +
+                "ORDER BY id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set parameters for the prepared statement
+            stmt.setDate(1, Date.valueOf(today));
+            stmt.setBigDecimal(2, BigDecimal.valueOf(finePerDay));
+            stmt.setDate(3, Date.valueOf(today));
+            stmt.setInt(4, batchSize);
+            // Return how many loans were flipped
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error marking overdue loans", e);
+            throw new RuntimeException("Error marking overdue loans", e);
+        }
+    }
+
+    @Override
+    public int accrueOverdueFines(LocalDate today, double finePerDay, int batchSize) {
+        // Brings the stored fine of at most batchSize OVERDUE loans to today's amount (down too, if the
+        // daily fine was lowered). Both sides are rounded to the cents the DECIMAL(10,2) column stores and
+        // the rate is sent as a DECIMAL, so an updated row no longer matches the WHERE clause and repeating
+        // the call walks through all of them
+        String sql = "UPDATE loans SET fine_amount = ROUND(DATEDIFF(?, due_date) * ?, 2) " +
+                "WHERE status = 'OVERDUE' AND fine_amount <> ROUND(DATEDIFF(?, due_date) * ?, 2) " +
+                "ORDER BY id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set parameters for the prepared statement
+            stmt.setDate(1, Date.valueOf(today));
+            stmt.setBigDecimal(2, BigDecimal.valueOf(finePerDay));
+            stmt.setDate(3, Date.valueOf(today));
+            stmt.setBigDecimal(4, BigDecimal.valueOf(finePerDay));
+            stmt.setInt(5, batchSize);
+            // Return how many fines were updated
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error updating overdue fines", e);
+            throw new RuntimeException("Error updating overdue fines", e);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        // Same INSERT as save(); with rewriteBatchedStatements=true the driver sends it as one multi-row INSERT
+        String sql = "INSERT INTO loans (book_id, member_id, loan_date, due_date, return_date, status, fine_amount) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            // Add one set of parameters per loan to the batch
+            for (Loan loan : loans) {
+                stmt.setInt(1, loan.getBookId());
+                stmt.setInt(2, loan.getMemberId());
+                stmt.setDate(3, Date.valueOf(loan.getLoanDate()));
+                stmt.setDate(4, Date.valueOf(loan.getDueDate()));
+                stmt.setObject(5, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null, Types.DATE);
+                stmt.setString(6, loan.getStatus());
+                stmt.setDouble(7, loan.getFineAmount());
+                stmt.addBatch();
+            }
+
+            // Execute the whole batch
+            stmt.executeBatch();
+
+            // Retrieve the auto-generated loan IDs, in insertion order
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Loan loan : loans) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    loan.setId(generatedKeys.getInt(1));
+                }
+            }
+
+            // Log successful batch
+            DatabaseConfig.getLogger().fine(() -> "Loans batch saved: " + loans.size());
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, "Error saving loans batch", e);
+            throw new RuntimeException("Error saving loans batch", e);
+        }
+    }
+
+    // Helper method to run a loan query through a streaming cursor, handing over each row as it arrives
+    private void streamLoans(String sql, Consumer<Loan> consumer, String errorMessage) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(mapResultSetToLoan(rs));
+            }
+
+        } catch (SQLException e) {
+            // Log and handle database errors
+            DatabaseConfig.getLogger().log(Level.SEVERE, errorMessage, e);
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
     // Helper method to map ResultSet row to Loan object with joined data
     private Loan mapResultSetToLoan(ResultSet rs) throws SQLException {
+        Loan loan = mapLoanColumns(rs);
+
+        // Set additional fields from JOINed tables for display purposes
+        loan.setBookTitle(rs.getString("book_title"));
+        loan.setBookIsbn(rs.getString("book_isbn"));
+        loan.setMemberName(rs.getString("first_name") + " " + rs.getString("last_name"));
+
+        return loan;
+    }
+
+    // Helper method to map the columns of the loans table itself
+    private Loan mapLoanColumns(ResultSet rs) throws SQLException {
         Loan loan = new Loan();
         loan.setId(rs.getInt("id"));
         loan.setBookId(rs.getInt("book_id"));
@@ -270,11 +741,6 @@ public class LoanDAOJDBC implements LoanDAO {
         loan.setFineAmount(rs.getDouble("fine_amount"));
         loan.setCreatedAt(rs.getDate("created_at").toLocalDate());
 
-        // Set additional fields from JOINed tables for display purposes
-        loan.setBookTitle(rs.getString("book_title"));
-        loan.setBookIsbn(rs.getString("book_isbn"));
-        loan.setMemberName(rs.getString("first_name") + " " + rs.getString("last_name"));
-
         return loan;
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package dao;
 import domain.Member;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MemberDAO {
     // Saves a new member to the database
@@ -13,6 +14,15 @@ public interface MemberDAO {
     Optional<Member> findByIdNumber(String idNumber);
     // Retrieves all members from the database
     List<Member> findAll();
+    // Pushes every member, ordered by name, to the consumer one at a time (nothing is kept in memory)
+    void streamAll(Consumer<Member> consumer);
+    // Retrieves the next page of members ordered by name, starting right after the given name/id
+    // Pass null for all three keys to get the first page
+    List<Member> findAllAfter(String lastFirstName, String lastLastName, Integer lastId, int limit);
+    // Retrieves the members at the given position in name order (OFFSET; for jumping far into the list)
+    List<Member> findPageAt(int offset, int limit);
+    // Number of members (active or not)
+    int countAll();
     // Retrieves only active members (members with active status)
     List<Member> findActiveMembers();
     // Updates an existing member in the database
@@ -21,4 +31,6 @@ public interface MemberDAO {
     void deactivateMember(Integer id);
     // Checks if an ID number is unique in the database (for validation)
     boolean isIdNumberUnique(String idNumber);
+    // Pushes every member ID number to the consumer one at a time (loads the uniqueness filter)
+    void streamIdNumbers(Consumer<String> consumer);
 }
\ No newline at end of file
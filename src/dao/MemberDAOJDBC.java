@@ -6,6 +6,7 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class MemberDAOJDBC implements MemberDAO {
 
@@ -123,6 +124,123 @@ public class MemberDAOJDBC implements MemberDAO {
         return members;
     }
 
+    @Override
+    public void streamAll(Consumer<Member> consumer) {
+        // SQL query to retrieve all members ordered by name, read through a streaming cursor
+        String sql = "SELECT * FROM members ORDER BY first_name, last_name";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Hand each row over as soon as it arrives
+            while (rs.next()) {
+                consumer.accept(mapResultSetToMember(rs));
+            }
+
+        } catch (SQLException e) {
+            // Print error message to console
+            System.err.println("Error streaming members: " + e.getMessage());
+            throw new RuntimeException("Error streaming members", e);
+        }
+    }
+
+    @Override
+    public List<Member> findAllAfter(String lastFirstName, String lastLastName, Integer lastId, int limit) {
+        // Initialize list to store this page of members
+        List<Member> members = new ArrayList<>();
+        // Keyset pagination: seek past the last (first name, last name, id) seen instead of using OFFSET
+        boolean firstPage = lastId == null;
+        String sql = firstPage
+                ? "SELECT * FROM members ORDER BY first_name, last_name, id LIMIT ?"
+                : "SELECT * FROM members " +
+                  "WHERE first_name > ? " +
+                  "OR (first_name = ? AND last_name > ?) " +
+                  "OR (first_name = ? AND last_name = ? AND id > ?) " +
+                  "ORDER BY first_name, last_name, id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set the sort key of the last row seen, then the page size
+            int index = 1;
+            if (!firstPage) {
+                stmt.setString(index++, lastFirstName);
+                stmt.setString(index++, lastFirstName);
+                stmt.setString(index++, lastLastName);
+                stmt.setString(index++, lastFirstName);
+                stmt.setString(index++, lastLastName);
+                stmt.setInt(index++, lastId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Member objects
+            while (rs.next()) {
+                members.add(mapResultSetToMember(rs));
+            }
+
+        } catch (SQLException e) {
+            // Print error message to console
+            System.err.println("Error finding members page: " + e.getMessage());
+        }
+
+        // Return this page (empty list once past the end)
+        return members;
+    }
+
+    @Override
+    public List<Member> findPageAt(int offset, int limit) {
+        // Initialize list to store this page of members
+        List<Member> members = new ArrayList<>();
+        // OFFSET walks past the skipped rows, so this is only used when no keyset cursor is known
+        String sql = "SELECT * FROM members ORDER BY first_name, last_name, id LIMIT ? OFFSET ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Set page size and position
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            ResultSet rs = stmt.executeQuery();
+
+            // Iterate through results and map to Member objects
+            while (rs.next()) {
+                members.add(mapResultSetToMember(rs));
+            }
+
+        } catch (SQLException e) {
+            // Print error message to console
+            System.err.println("Error finding members page at offset: " + e.getMessage());
+        }
+
+        // Return this page (empty list once past the end)
+        return members;
+    }
+
+    @Override
+    public int countAll() {
+        // SQL query to count every member
+        String sql = "SELECT COUNT(*) FROM members";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Return the count
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            // Print error message to console
+            System.err.println("Error counting members: " + e.getMessage());
+        }
+
+        // Return 0 if nothing could be counted
+        return 0;
+    }
+
     @Override
     public List<Member> findActiveMembers() {
         // Initialize list to store active members
@@ -225,6 +343,27 @@ public class MemberDAOJDBC implements MemberDAO {
         return false;
     }
 
+    @Override
+    public void streamIdNumbers(Consumer<String> consumer) {
+        // Only the ID number column, read through a streaming cursor (answered from the UNIQUE index alone)
+        String sql = "SELECT id_number FROM members";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            // Hand each ID number over as soon as it arrives
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            // Print error message to console
+            System.err.println("Error streaming ID numbers: " + e.getMessage());
+            throw new RuntimeException("Error streaming ID numbers", e);
+        }
+    }
+
     // Helper method to map ResultSet row to Member object
     private Member mapResultSetToMember(ResultSet rs) throws SQLException {
         Member member = new Member();
@@ -0,0 +1,42 @@
+package domain;
+
+public class ImportResult {
+    // Private fields summarising one bulk import run
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long durationMillis;
+    private final String rejectsFile;
+
+    // Constructor with every figure of the finished import
+    public ImportResult(long rowsRead, long rowsImported, long rowsRejected, long durationMillis, String rejectsFile) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.durationMillis = durationMillis;
+        this.rejectsFile = rejectsFile;
+    }
+
+    // Getter for number of data rows read from the file
+    public long getRowsRead() { return rowsRead; }
+
+    // Getter for number of rows inserted into the database
+    public long getRowsImported() { return rowsImported; }
+
+    // Getter for number of rows written to the rejects file
+    public long getRowsRejected() { return rowsRejected; }
+
+    // Getter for how long the import took
+    public long getDurationMillis() { return durationMillis; }
+
+    // Getter for the file holding rejected rows and their reasons
+    public String getRejectsFile() { return rejectsFile; }
+
+    // Overridden toString method for displaying the import summary
+    @Override
+    public String toString() {
+        double seconds = Math.max(durationMillis, 1) / 1000.0;
+        return String.format("Read: %d, Imported: %d, Rejected: %d, Time: %.1f s (%.0f rows/sec)",
+                rowsRead, rowsImported, rowsRejected, seconds, rowsRead / seconds);
+    }
+}
@@ -0,0 +1,46 @@
+package domain;
+
+public class ReturnOutcome {
+    // Private fields describing what happened to one loan of a batch return
+    private final Integer loanId;
+    private final boolean returned;
+    private final double fineAmount;
+    private final String message;
+
+    // Constructor for a loan that was returned
+    public ReturnOutcome(Integer loanId, double fineAmount) {
+        this.loanId = loanId;
+        this.returned = true;
+        this.fineAmount = fineAmount;
+        this.message = null;
+    }
+
+    // Constructor for a loan that was refused, with the reason
+    public ReturnOutcome(Integer loanId, String message) {
+        this.loanId = loanId;
+        this.returned = false;
+        this.fineAmount = 0.0;
+        this.message = message;
+    }
+
+    // Getter for the loan this outcome is about
+    public Integer getLoanId() { return loanId; }
+
+    // Getter for whether the loan was returned (false means it was rejected)
+    public boolean isReturned() { return returned; }
+
+    // Getter for the fine charged on return (0 when not overdue or rejected)
+    public double getFineAmount() { return fineAmount; }
+
+    // Getter for the rejection reason (null when returned)
+    public String getMessage() { return message; }
+
+    // Overridden toString method for displaying the outcome
+    @Override
+    public String toString() {
+        if (returned) {
+            return String.format("Loan %d: returned (fine: $%.2f)", loanId, fineAmount);
+        }
+        return "Loan " + loanId + ": rejected - " + message;
+    }
+}
@@ -0,0 +1,10 @@
+package exceptions;
+
+public class NotFoundException extends BusinessException {
+    private static final long serialVersionUID = 1L;
+
+    // Constructor with message parameter for a record (loan, book, member) that does not exist
+    public NotFoundException(String message) {
+        super(message); // Call parent BusinessException constructor
+    }
+}
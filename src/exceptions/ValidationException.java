@@ -0,0 +1,10 @@
+package exceptions;
+
+public class ValidationException extends BusinessException {
+    private static final long serialVersionUID = 1L;
+
+    // Constructor with message parameter for input that breaks a rule on its own (missing field, bad format, ...)
+    public ValidationException(String message) {
+        super(message); // Call parent BusinessException constructor
+    }
+}
@@ -1,4 +1,5 @@
 -- Database: library_db
+-- Indexes and later schema changes are applied at startup by the numbered scripts in migrations/
 -- Create database if it doesn't exist and switch to it
 CREATE DATABASE IF NOT EXISTS library_db;
 USE library_db;
@@ -0,0 +1,15 @@
+-- Migration V1: indexes for the queries the DAOs run on every screen
+-- Loans listed/filtered by status and sorted by due date (active and overdue views)
+CREATE INDEX idx_loans_status_due_date ON loans (status, due_date);
+-- Active-loan count per member (loan limit checks, member deactivation)
+CREATE INDEX idx_loans_member_status ON loans (member_id, status);
+-- Full loan history sorted by due date, and its keyset pagination (due_date, id)
+CREATE INDEX idx_loans_due_date ON loans (due_date, id);
+-- Catalog sorted by title, and its keyset pagination (title, id)
+CREATE INDEX idx_books_title ON books (title);
+-- Books by author
+CREATE INDEX idx_books_author ON books (author);
+-- Member list sorted by name, and its keyset pagination (first_name, last_name, id)
+CREATE INDEX idx_members_name ON members (first_name, last_name);
+-- Active member list sorted by name
+CREATE INDEX idx_members_active_name ON members (active, first_name, last_name);
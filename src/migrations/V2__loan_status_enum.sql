@@ -0,0 +1,3 @@
+-- Migration V2: databases created by older versions of initializeDatabase stored the loan status
+-- as VARCHAR(20); align them with library_db.sql, which defines it as an ENUM
+ALTER TABLE loans MODIFY status ENUM('ACTIVE', 'RETURNED', 'OVERDUE') NOT NULL DEFAULT 'ACTIVE';
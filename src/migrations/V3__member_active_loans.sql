@@ -0,0 +1,9 @@
+-- Migration V3: keep a running count of each member's active loans on the member row,
+-- so the loan limit is checked with a primary-key read instead of COUNT(*) over loans.
+-- LoanService updates it in the same transaction as every checkout and return;
+-- LoanService.reconcileActiveLoanCounters repairs any drift.
+ALTER TABLE members ADD COLUMN active_loans INT NOT NULL DEFAULT 0;
+
+-- Start from the loans that are active right now
+UPDATE members m
+SET active_loans = (SELECT COUNT(*) FROM loans l WHERE l.member_id = m.id AND l.status = 'ACTIVE');
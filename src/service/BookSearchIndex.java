@@ -0,0 +1,422 @@
+package service;
+
+import domain.Book;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import util.RowSource;
+
+// In-memory inverted index over book titles and authors
+// Every word of a title/author points to the ids of the books containing it, so a search only touches
+// the books that match instead of scanning the whole books table with LIKE '%term%'
+public class BookSearchIndex {
+    private static final Logger logger = Logger.getLogger(BookSearchIndex.class.getName());
+
+    // Accents are removed so "garcia" finds "García"
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Which text of the book a search looks at
+    public enum Field { TITLE, AUTHOR }
+
+    // Snapshot of every indexed book by id
+    private final Map<Integer, Book> books = new HashMap<>();
+    // word -> ids of the books containing it, one index per field; sorted so prefixes are a range lookup
+    private final TreeMap<String, Postings> titleIndex = new TreeMap<>();
+    private final TreeMap<String, Postings> authorIndex = new TreeMap<>();
+    // Books whose copy counts changed since they were indexed; refreshed when they show up in results
+    private final Set<Integer> staleBooks = new HashSet<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Changes that arrive while the index is being built, replayed once the build completes
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private volatile boolean ready = false;
+    private boolean building = false;
+
+    // Fills the index from a source of every book (typically the DAO's streaming cursor)
+    // Returns false if another thread is already building it
+    public boolean build(RowSource<Book> allBooks) {
+        synchronized (pendingChanges) {
+            if (building || ready) {
+                return false;
+            }
+            building = true;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            allBooks.forEach(book -> {
+                Book copy = copyOf(book);
+                books.put(copy.getId(), copy);
+                for (String token : tokenize(copy.getTitle())) {
+                    titleIndex.computeIfAbsent(token, key -> new Postings()).append(copy.getId());
+                }
+                for (String token : tokenize(copy.getAuthor())) {
+                    authorIndex.computeIfAbsent(token, key -> new Postings()).append(copy.getId());
+                }
+            });
+            // Ids arrive in title order, so each postings list is sorted once at the end
+            titleIndex.values().forEach(Postings::sortAndDeduplicate);
+            authorIndex.values().forEach(Postings::sortAndDeduplicate);
+        } catch (RuntimeException e) {
+            clearLocked();
+            synchronized (pendingChanges) {
+                building = false;
+                pendingChanges.clear();
+            }
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Replay the changes made while we were reading the catalog, then open the index for searches
+        synchronized (pendingChanges) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            building = false;
+            ready = true;
+        }
+        logger.info("Book search index built: " + books.size() + " books, " + titleIndex.size()
+                + " title words, " + authorIndex.size() + " author words in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    // True once the index has been built and can answer searches
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Number of books in the index
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds a new book or replaces the indexed version of an existing one
+    public void put(Book book) {
+        Book copy = copyOf(book);
+        applyOrQueue(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(copy.getId());
+                books.put(copy.getId(), copy);
+                for (String token : tokenize(copy.getTitle())) {
+                    titleIndex.computeIfAbsent(token, key -> new Postings()).insert(copy.getId());
+                }
+                for (String token : tokenize(copy.getAuthor())) {
+                    authorIndex.computeIfAbsent(token, key -> new Postings()).insert(copy.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Removes a deleted book
+    public void remove(Integer bookId) {
+        applyOrQueue(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(bookId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Notes that a book's copy counts changed (loan, return...) without touching its words
+    // The fresh numbers are loaded the next time the book appears in a search result
+    public void markStale(Integer bookId) {
+        applyOrQueue(() -> {
+            synchronized (staleBooks) {
+                staleBooks.add(bookId);
+            }
+        });
+    }
+
+    // Finds the books whose title/author contains every word of the query (a word may be the start of a longer one)
+    // Best matches come first: whole-word hits beat prefix hits, and a field that starts with the query ranks higher
+    // At most limit books are returned; refresher reloads books marked stale
+    // Returns an empty list when the query has no searchable words
+    public List<Book> search(Field field, String query, int limit, Function<Integer, Optional<Book>> refresher) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<Book> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            TreeMap<String, Postings> index = field == Field.TITLE ? titleIndex : authorIndex;
+
+            // AND across terms: intersect the ids matching each term, rarest term first, so the running
+            // candidate list is as short as it can be from the start
+            List<int[]> idsPerTerm = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                int[] ids = idsMatching(index, term);
+                if (ids.length == 0) {
+                    return matches;
+                }
+                idsPerTerm.add(ids);
+            }
+            idsPerTerm.sort(Comparator.comparingInt(ids -> ids.length));
+
+            int[] candidates = idsPerTerm.get(0);
+            for (int i = 1; i < idsPerTerm.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, idsPerTerm.get(i));
+            }
+            // Indexed books are replaced, never modified, so they can be read after the lock is released
+            for (int id : candidates) {
+                matches.add(books.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Rank outside the lock so writers are not held up by a broad query
+        String normalizedQuery = String.join(" ", terms);
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Book book : matches) {
+            String text = field == Field.TITLE ? book.getTitle() : book.getAuthor();
+            scores.put(book.getId(), score(terms, normalizedQuery, tokenize(text)));
+        }
+        Comparator<Book> byRelevance = Comparator.comparing((Book book) -> -scores.getOrDefault(book.getId(), 0))
+                .thenComparing(Book::getTitle, String.CASE_INSENSITIVE_ORDER);
+        matches.sort(byRelevance);
+        if (matches.size() > limit) {
+            matches = matches.subList(0, limit);
+        }
+
+        // Refresh books whose availability changed since they were indexed, then hand out copies
+        List<Book> results = new ArrayList<>(matches.size());
+        for (Book book : matches) {
+            Book fresh = book;
+            boolean stale;
+            synchronized (staleBooks) {
+                stale = staleBooks.remove(book.getId());
+            }
+            if (stale) {
+                Optional<Book> reloaded = refresher.apply(book.getId());
+                if (reloaded.isEmpty()) {
+                    continue;
+                }
+                fresh = reloaded.get();
+                put(fresh);
+            }
+            results.add(copyOf(fresh));
+        }
+        return results;
+    }
+
+    // Splits text into lowercase, accent-free words
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : NON_WORD.split(normalized.toLowerCase())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Ids of books with a word equal to or starting with the term
+    private static int[] idsMatching(TreeMap<String, Postings> index, String term) {
+        NavigableMap<String, Postings> range = index.subMap(term, true, term + Character.MAX_VALUE, false);
+        if (range.isEmpty()) {
+            return new int[0];
+        }
+        if (range.size() == 1) {
+            return range.firstEntry().getValue().toArray();
+        }
+        return unionOf(range.values());
+    }
+
+    private static int[] unionOf(Collection<Postings> lists) {
+        int total = 0;
+        for (Postings postings : lists) {
+            total += postings.size;
+        }
+        int[] all = new int[total];
+        int offset = 0;
+        for (Postings postings : lists) {
+            System.arraycopy(postings.ids, 0, all, offset, postings.size);
+            offset += postings.size;
+        }
+        Arrays.sort(all);
+        return deduplicate(all, all.length);
+    }
+
+    // Both inputs are sorted: walk them together
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[n++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    // Relevance: 3 points per whole-word match, 1 per prefix match, +5 if the text starts with the query
+    private static int score(List<String> terms, String normalizedQuery, List<String> textTokens) {
+        int score = 0;
+        for (String term : terms) {
+            score += textTokens.contains(term) ? 3 : 1;
+        }
+        if (String.join(" ", textTokens).startsWith(normalizedQuery)) {
+            score += 5;
+        }
+        return score;
+    }
+
+    private void applyOrQueue(Runnable change) {
+        synchronized (pendingChanges) {
+            if (building) {
+                pendingChanges.add(change);
+                return;
+            }
+            if (!ready) {
+                // Not built yet: the build will read the current database state anyway
+                return;
+            }
+        }
+        change.run();
+    }
+
+    private void removeLocked(Integer bookId) {
+        Book old = books.remove(bookId);
+        if (old == null) {
+            return;
+        }
+        for (String token : tokenize(old.getTitle())) {
+            removePosting(titleIndex, token, bookId);
+        }
+        for (String token : tokenize(old.getAuthor())) {
+            removePosting(authorIndex, token, bookId);
+        }
+    }
+
+    private static void removePosting(TreeMap<String, Postings> index, String token, int bookId) {
+        Postings postings = index.get(token);
+        if (postings != null && postings.remove(bookId) && postings.size == 0) {
+            index.remove(token);
+        }
+    }
+
+    private void clearLocked() {
+        books.clear();
+        titleIndex.clear();
+        authorIndex.clear();
+    }
+
+    private static int[] deduplicate(int[] sorted, int length) {
+        if (length == 0) {
+            return new int[0];
+        }
+        int n = 1;
+        for (int i = 1; i < length; i++) {
+            if (sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    // The index keeps its own copies so callers modifying a result cannot corrupt it
+    private static Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setIsbn(book.getIsbn());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setYearPublished(book.getYearPublished());
+        copy.setGenre(book.getGenre());
+        copy.setTotalCopies(book.getTotalCopies());
+        copy.setAvailableCopies(book.getAvailableCopies());
+        copy.setCreatedAt(book.getCreatedAt());
+        return copy;
+    }
+
+    // Sorted list of book ids stored in a plain int array (far smaller than a Set<Integer>)
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        // Adds at the end without keeping order (bulk build; call sortAndDeduplicate afterwards)
+        private void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void sortAndDeduplicate() {
+            Arrays.sort(ids, 0, size);
+            int[] unique = deduplicate(ids, size);
+            size = unique == ids ? size : unique.length;
+            if (unique != ids) {
+                ids = Arrays.copyOf(unique, Math.max(4, unique.length));
+            }
+        }
+
+        // Adds one id keeping the array sorted
+        private void insert(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -1,155 +1,566 @@
 package service;
 
+import config.DatabaseConfig;
+import config.TransactionContext;
 import dao.BookDAO;
-import dao.BookDAOJDBC;
+import dao.CachingBookDAO;
 import domain.Book;
+import domain.ImportResult;
 import exceptions.BusinessException;
+import exceptions.ValidationException;
+import util.AsyncExecutor;
+import util.CSVImportUtil;
+import util.QueryCanceller;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 public class BookService {
     private BookDAO bookDAO;
+    // Cache in front of the database; kept as its own field so its statistics can be read
+    private CachingBookDAO bookCache;
     private static final Logger logger = Logger.getLogger(BookService.class.getName());
+    // Largest page a caller can ask for at once
+    private static final int MAX_PAGE_SIZE = 500;
+    // Word index answering title/author searches; it mirrors the whole catalog
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+    // Every ISBN in the catalog, so most new ISBNs skip the uniqueness query
+    private final UniqueValueFilter isbnFilter = new UniqueValueFilter("isbn", 1_000_000L);
 
-    // Constructor - creates a new BookService with database access
-    public BookService() {
-        this.bookDAO = new BookDAOJDBC();
+    // Constructor - works on the given book cache (ApplicationContext passes the application's only one)
+    // Single-book lookups are answered from the cache; calls that reach the database are timed by
+    // InstrumentedDAO (cache hits are not DAO calls)
+    public BookService(CachingBookDAO bookCache) {
+        this.bookCache = bookCache;
+        this.bookDAO = bookCache;
         logger.info("BookService initialized");
     }
 
+    // Builds the title/author search index in the background (called once at startup)
+    // Searches fall back to the database until it is ready
+    public void startSearchIndexBuild() {
+        if (searchIndex.isReady()) {
+            return;
+        }
+        Thread builder = new Thread(() -> {
+            try {
+                searchIndex.build(bookDAO::streamAll);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not build the book search index, searches will use the database", e);
+            }
+        }, "libronova-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    // Loads every existing ISBN into the uniqueness filter in the background (called once at startup)
+    public void startIsbnFilterLoad() {
+        isbnFilter.loadInBackground(bookDAO::streamIsbns);
+    }
+
     // Adds a new book to the system after validation
     public void addBook(Book book) throws BusinessException {
-        logger.info("Attempting to add new book: " + book.getIsbn());
+        logger.fine(() -> "Attempting to add new book: " + book.getIsbn());
 
         validateBook(book);
 
-        // Check if ISBN already exists in the system
-        if (!bookDAO.isIsbnUnique(book.getIsbn())) {
-            logger.warning("ISBN already exists: " + book.getIsbn());
+        // Check if ISBN already exists in the system (only asks the database if the filter has seen it)
+        if (isbnFilter.mightExist(book.getIsbn()) && !bookDAO.isIsbnUnique(book.getIsbn())) {
+            logger.warning(() -> "ISBN already exists: " + book.getIsbn());
             throw new BusinessException("ISBN already exists in the system: " + book.getIsbn());
         }
 
         // Validate that total copies is not negative
         if (book.getTotalCopies() < 0) {
-            logger.warning("Invalid total copies: " + book.getTotalCopies());
-            throw new BusinessException("Number of copies cannot be negative");
+            logger.warning(() -> "Invalid total copies: " + book.getTotalCopies());
+            throw new ValidationException("Number of copies cannot be negative");
+        }
+
+        // The UNIQUE index still has the last word: another desk may have added the same ISBN meanwhile
+        try {
+            bookDAO.save(book);
+        } catch (RuntimeException e) {
+            if (DatabaseConfig.isDuplicateKey(e)) {
+                isbnFilter.add(book.getIsbn());
+                throw new BusinessException("ISBN already exists in the system: " + book.getIsbn(), e);
+            }
+            throw e;
+        }
+        isbnFilter.add(book.getIsbn());
+        searchIndex.put(book);
+        logger.info(() -> "Book added successfully: " + book.getIsbn());
+    }
+
+    // Imports a publisher catalog from a CSV file written in the books export format
+    // Rows are parsed and validated on worker threads, duplicate ISBNs are dropped in memory and
+    // the rest is inserted in JDBC batches; every refused row goes to rejectsFile with its reason
+    public ImportResult importBooks(String csvFile, String rejectsFile) throws BusinessException {
+        logger.info(() -> "Starting book import from: " + csvFile);
+        long start = System.currentTimeMillis();
+
+        int batchSize = Math.max(1, DatabaseConfig.getIntSetting("import.batchSize", 1000));
+        int workers = Math.max(1, DatabaseConfig.getIntSetting("import.workerThreads",
+                Runtime.getRuntime().availableProcessors()));
+        ExecutorService parsers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "libronova-import-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Chunks handed to the parsers, stored in the same order they were read
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+        ImportProgress progress = new ImportProgress();
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(csvFile), StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(Path.of(rejectsFile), StandardCharsets.UTF_8)) {
+
+            // The first record is the header row of the export format
+            String header = CSVImportUtil.readRecord(reader);
+            if (header == null) {
+                throw new BusinessException("The import file is empty");
+            }
+            rejects.write(header + ",Rejection Reason\n");
+
+            List<String> chunk = new ArrayList<>(batchSize);
+            String record;
+            while ((record = CSVImportUtil.readRecord(reader)) != null) {
+                progress.rowsRead++;
+                chunk.add(record);
+                if (chunk.size() == batchSize) {
+                    List<String> toParse = chunk;
+                    pending.addLast(parsers.submit(() -> parseChunk(toParse)));
+                    chunk = new ArrayList<>(batchSize);
+
+                    // Back-pressure: do not read further ahead than the parsers and the database can follow
+                    while (pending.size() >= workers * 2) {
+                        storeChunk(pending.removeFirst().get(), progress, rejects);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<String> toParse = chunk;
+                pending.addLast(parsers.submit(() -> parseChunk(toParse)));
+            }
+            while (!pending.isEmpty()) {
+                storeChunk(pending.removeFirst().get(), progress, rejects);
+            }
+
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, e, () -> "Error reading import file: " + csvFile);
+            throw new BusinessException("Error reading import file: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Book import was interrupted", e);
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, e.getCause(), () -> "Error parsing import file: " + csvFile);
+            throw new BusinessException("Error parsing import file: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            parsers.shutdownNow();
         }
 
-        bookDAO.save(book);
-        logger.info("Book added successfully: " + book.getIsbn());
+        ImportResult result = new ImportResult(progress.rowsRead, progress.rowsImported, progress.rowsRejected,
+                System.currentTimeMillis() - start, rejectsFile);
+        logger.info(() -> "Book import finished: " + result);
+        return result;
     }
 
     // Retrieves all books from the database
     public List<Book> getAllBooks() {
-        logger.info("Retrieving all books");
+        logger.fine("Retrieving all books");
         List<Book> books = bookDAO.findAll();
-        logger.info("Retrieved " + books.size() + " books");
+        logger.fine(() -> "Retrieved " + books.size() + " books");
         return books;
     }
 
+    // Pushes every book to the consumer one at a time (used by exports so the catalog is never fully in memory)
+    public void streamAllBooks(Consumer<Book> consumer) {
+        logger.fine("Streaming all books");
+        bookDAO.streamAll(consumer);
+    }
+
+    // Retrieves one page of books ordered by title
+    // Pass the title and id of the last book already shown (or nulls for the first page)
+    public List<Book> getBooksPage(String lastTitle, Integer lastId, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        logger.fine(() -> "Retrieving books page after: " + lastTitle + "/" + lastId);
+        return bookDAO.findAllAfter(lastTitle, lastId, limit);
+    }
+
+    // Retrieves the books at a position in title order (for jumping straight to a row of a table)
+    public List<Book> getBooksAt(int offset, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        logger.fine(() -> "Retrieving books page at offset: " + offset);
+        return bookDAO.findPageAt(Math.max(0, offset), limit);
+    }
+
+    // Number of books in the catalog
+    public int countBooks() {
+        return bookDAO.countAll();
+    }
+
     // Finds a book by its unique ISBN number
     public Optional<Book> getBookByIsbn(String isbn) {
-        logger.info("Searching for book by ISBN: " + isbn);
+        logger.fine(() -> "Searching for book by ISBN: " + isbn);
         return bookDAO.findByIsbn(isbn);
     }
 
-    // Searches for books by title (partial matches)
+    // Searches for books by title (partial matches), at most MAX_PAGE_SIZE of them
+    // Answered from the word index, best matches first: every word of the query must appear in the title
     public List<Book> searchBooksByTitle(String title) {
-        logger.info("Searching books by title: " + title);
-        List<Book> books = bookDAO.findByTitle(title);
-        logger.info("Found " + books.size() + " books matching title: " + title);
+        return searchBooksByTitle(title, MAX_PAGE_SIZE);
+    }
+
+    // Same, returning at most limit books (capped at MAX_PAGE_SIZE)
+    public List<Book> searchBooksByTitle(String title, int limit) {
+        logger.fine(() -> "Searching books by title: " + title);
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Book> indexed = searchIndexed(BookSearchIndex.Field.TITLE, title, cappedLimit);
+        List<Book> books = indexed != null ? indexed : bookDAO.findByTitle(title, cappedLimit, new QueryCanceller());
+        logger.fine(() -> "Found " + books.size() + " books matching title: " + title);
         return books;
     }
 
-    // Searches for books by author name
+    // Searches for books by author name, at most MAX_PAGE_SIZE of them
     public List<Book> searchBooksByAuthor(String author) {
-        logger.info("Searching books by author: " + author);
-        List<Book> books = bookDAO.findByAuthor(author);
-        logger.info("Found " + books.size() + " books by author: " + author);
+        return searchBooksByAuthor(author, MAX_PAGE_SIZE);
+    }
+
+    // Same, returning at most limit books (capped at MAX_PAGE_SIZE)
+    public List<Book> searchBooksByAuthor(String author, int limit) {
+        logger.fine(() -> "Searching books by author: " + author);
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Book> indexed = searchIndexed(BookSearchIndex.Field.AUTHOR, author, cappedLimit);
+        List<Book> books = indexed != null ? indexed : bookDAO.findByAuthor(author, cappedLimit, new QueryCanceller());
+        logger.fine(() -> "Found " + books.size() + " books by author: " + author);
         return books;
     }
 
+    // Search-as-you-type lookups: a capped database query that the canceller can stop once the user has
+    // typed past it (the word index needs whole words, so partial words go straight to the database)
+    public List<Book> searchBooksByTitle(String title, int limit, QueryCanceller canceller) {
+        return bookDAO.findByTitle(title, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), canceller);
+    }
+
+    public List<Book> searchBooksByAuthor(String author, int limit, QueryCanceller canceller) {
+        return bookDAO.findByAuthor(author, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), canceller);
+    }
+
+    // Non-blocking variants for the UI: the same work, run on a virtual thread (see AsyncExecutor)
+    public CompletableFuture<List<Book>> getAllBooksAsync() {
+        return AsyncExecutor.supply(this::getAllBooks);
+    }
+
+    public CompletableFuture<List<Book>> searchBooksByTitleAsync(String title) {
+        return AsyncExecutor.supply(() -> searchBooksByTitle(title));
+    }
+
+    public CompletableFuture<List<Book>> searchBooksByAuthorAsync(String author) {
+        return AsyncExecutor.supply(() -> searchBooksByAuthor(author));
+    }
+
+    public CompletableFuture<Optional<Book>> getBookByIsbnAsync(String isbn) {
+        return AsyncExecutor.supply(() -> getBookByIsbn(isbn));
+    }
+
     // Updates an existing book's information
     public void updateBook(Book book) throws BusinessException {
-        logger.info("Attempting to update book ID: " + book.getId());
+        logger.fine(() -> "Attempting to update book ID: " + book.getId());
 
         validateBook(book);
 
-        // Check for ISBN conflicts with other books
-        Optional<Book> existingBook = bookDAO.findByIsbn(book.getIsbn());
+        // Check for ISBN conflicts with other books (no query needed for an ISBN the filter never saw)
+        Optional<Book> existingBook = isbnFilter.mightExist(book.getIsbn())
+                ? bookDAO.findByIsbn(book.getIsbn()) : Optional.empty();
         if (existingBook.isPresent() && !existingBook.get().getId().equals(book.getId())) {
-            logger.warning("ISBN conflict during update: " + book.getIsbn());
+            logger.warning(() -> "ISBN conflict during update: " + book.getIsbn());
             throw new BusinessException("ISBN already exists in the system: " + book.getIsbn());
         }
 
         // Validate that available copies don't exceed total copies
         if (book.getAvailableCopies() > book.getTotalCopies()) {
-            logger.warning("Available copies exceed total copies for book ID: " + book.getId());
-            throw new BusinessException("Available copies cannot be greater than total copies");
+            logger.warning(() -> "Available copies exceed total copies for book ID: " + book.getId());
+            throw new ValidationException("Available copies cannot be greater than total copies");
         }
 
-        bookDAO.update(book);
-        logger.info("Book updated successfully: " + book.getIsbn());
+        try {
+            bookDAO.update(book);
+        } catch (RuntimeException e) {
+            if (DatabaseConfig.isDuplicateKey(e)) {
+                throw new BusinessException("ISBN already exists in the system: " + book.getIsbn(), e);
+            }
+            throw e;
+        }
+        isbnFilter.add(book.getIsbn());
+        searchIndex.put(book);
+        logger.info(() -> "Book updated successfully: " + book.getIsbn());
     }
 
     // Deletes a book from the system
     public void deleteBook(Integer id) throws BusinessException {
-        logger.info("Attempting to delete book ID: " + id);
+        logger.fine(() -> "Attempting to delete book ID: " + id);
 
         // Prevent deletion if books are currently borrowed
         Optional<Book> book = bookDAO.findById(id);
         if (book.isPresent() && book.get().getAvailableCopies() < book.get().getTotalCopies()) {
-            logger.warning("Cannot delete book with borrowed copies: " + id);
+            logger.warning(() -> "Cannot delete book with borrowed copies: " + id);
             throw new BusinessException("Cannot delete the book because it has borrowed copies");
         }
 
         bookDAO.delete(id);
-        logger.info("Book deleted successfully: " + id);
+        searchIndex.remove(id);
+        logger.info(() -> "Book deleted successfully: " + id);
     }
 
     // Updates the available copies when books are borrowed or returned
     public void updateBookStock(Integer bookId, Integer change) {
-        logger.info("Updating book stock - Book ID: " + bookId + ", Change: " + change);
+        logger.fine(() -> "Updating book stock - Book ID: " + bookId + ", Change: " + change);
         bookDAO.updateAvailableCopies(bookId, change);
+        // Flag it once the loan transaction is over, so a refresh cannot read the pre-commit numbers
+        TransactionContext.onEnd(() -> searchIndex.markStale(bookId));
         logger.fine("Book stock updated successfully");
     }
 
+    // Applies several stock changes (book id -> change) in one batch, e.g. all the copies of a batch return
+    public void updateBookStocks(Map<Integer, Integer> changesByBookId) {
+        logger.fine(() -> "Updating stock of " + changesByBookId.size() + " books");
+        bookDAO.updateAvailableCopies(changesByBookId);
+        TransactionContext.onEnd(() -> changesByBookId.keySet().forEach(searchIndex::markStale));
+    }
+
+    // Takes one copy of the book and one of the member's loan slots, in one statement (single checkout)
+    // Returns false when there is nothing left to lend or the member may not borrow
+    public boolean reserveBookCopyForMember(Integer bookId, Integer memberId, int maxActiveLoans) {
+        logger.fine(() -> "Reserving one copy - Book ID: " + bookId + ", Member ID: " + memberId);
+        boolean reserved = bookDAO.reserveCopyAndLoanSlot(bookId, memberId, maxActiveLoans);
+        if (reserved) {
+            TransactionContext.onEnd(() -> searchIndex.markStale(bookId));
+        }
+        logger.fine(() -> "Book ID " + bookId + " reserved: " + reserved);
+        return reserved;
+    }
+
+    // Takes one copy of the book for a loan, only if a copy is still available
+    // Returns false when there is nothing left to lend
+    public boolean reserveBookCopy(Integer bookId) {
+        logger.fine(() -> "Reserving one copy - Book ID: " + bookId);
+        boolean reserved = bookDAO.reserveCopy(bookId);
+        if (reserved) {
+            TransactionContext.onEnd(() -> searchIndex.markStale(bookId));
+        }
+        logger.fine(() -> "Book ID " + bookId + " reserved: " + reserved);
+        return reserved;
+    }
+
+    // Takes one copy of each book of a checkout with a single statement
+    // Returns false when any of them has nothing left to lend (the caller's transaction must roll back)
+    public boolean reserveBookCopies(Collection<Integer> bookIds) {
+        logger.fine(() -> "Reserving one copy each of " + bookIds.size() + " books");
+        boolean reserved = bookDAO.reserveCopies(bookIds);
+        TransactionContext.onEnd(() -> bookIds.forEach(searchIndex::markStale));
+        return reserved;
+    }
+
     // Checks if a book is available for loan (has available copies)
     public boolean isBookAvailableForLoan(Integer bookId) {
-        logger.fine("Checking book availability for loan - Book ID: " + bookId);
+        logger.fine(() -> "Checking book availability for loan - Book ID: " + bookId);
         Optional<Book> book = bookDAO.findById(bookId);
         boolean available = book.isPresent() && book.get().getAvailableCopies() > 0;
-        logger.fine("Book ID " + bookId + " available: " + available);
+        logger.fine(() -> "Book ID " + bookId + " available: " + available);
         return available;
     }
 
+    // Returns hit/miss/eviction figures of the book cache (useful to size cache.books.maxSize)
+    public String getCacheStatistics() {
+        return bookCache.getStatistics() + "; " + isbnFilter.getStatistics();
+    }
+
+    // Looks the query up in the search index
+    // Returns null when the database should answer instead: index not built yet or nothing searchable in
+    // the query (only punctuation); a query the index does not match is answered with an empty list
+    private List<Book> searchIndexed(BookSearchIndex.Field field, String query, int limit) {
+        if (!searchIndex.isReady() || BookSearchIndex.tokenize(query).isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        List<Book> books = searchIndex.search(field, query, limit, bookDAO::findById);
+        logger.fine(() -> "Index search took " + (System.nanoTime() - start) / 1000 + " us");
+        return books;
+    }
+
     // Validates book data meets all business rules
     private void validateBook(Book book) throws BusinessException {
         logger.fine("Validating book data");
 
+        String error = findValidationError(book);
+        if (error != null) {
+            logger.warning(() -> "Book validation failed: " + error);
+            throw new ValidationException(error);
+        }
+
+        logger.fine("Book validation passed");
+    }
+
+    // Checks the business rules of a book without logging; returns the first problem found, or null
+    private static String findValidationError(Book book) {
         // Check required fields are not empty
         if (book.getIsbn() == null || book.getIsbn().trim().isEmpty()) {
-            logger.warning("Book validation failed: ISBN is required");
-            throw new BusinessException("ISBN is required");
+            return "ISBN is required";
         }
 
         if (book.getTitle() == null || book.getTitle().trim().isEmpty()) {
-            logger.warning("Book validation failed: Title is required");
-            throw new BusinessException("Title is required");
+            return "Title is required";
         }
 
         if (book.getAuthor() == null || book.getAuthor().trim().isEmpty()) {
-            logger.warning("Book validation failed: Author is required");
-            throw new BusinessException("Author is required");
+            return "Author is required";
         }
 
         // Validate total copies is not negative
         if (book.getTotalCopies() == null || book.getTotalCopies() < 0) {
-            logger.warning("Book validation failed: Invalid total copies");
-            throw new BusinessException("Total number of copies must be greater than or equal to 0");
+            return "Total number of copies must be greater than or equal to 0";
         }
 
-        logger.fine("Book validation passed");
+        return null;
+    }
+
+    // Parses and validates one chunk of CSV records (runs on an import worker thread)
+    private static ParsedChunk parseChunk(List<String> records) {
+        ParsedChunk parsed = new ParsedChunk();
+        for (String record : records) {
+            try {
+                Book book = CSVImportUtil.parseBookRow(CSVImportUtil.parseRecord(record));
+                String error = findValidationError(book);
+                if (error == null && (book.getAvailableCopies() < 0 || book.getAvailableCopies() > book.getTotalCopies())) {
+                    error = "Available copies must be between 0 and total copies";
+                }
+                if (error != null) {
+                    parsed.reject(record, error);
+                } else {
+                    parsed.records.add(record);
+                    parsed.books.add(book);
+                }
+            } catch (IllegalArgumentException e) {
+                parsed.reject(record, e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    // Drops duplicate ISBNs, inserts the remaining books as one batch and records the rejects
+    private void storeChunk(ParsedChunk parsed, ImportProgress progress, BufferedWriter rejects) throws IOException {
+        for (int i = 0; i < parsed.rejectedRecords.size(); i++) {
+            writeReject(rejects, parsed.rejectedRecords.get(i), parsed.rejectReasons.get(i), progress);
+        }
+
+        // Duplicates inside the file itself are caught in memory
+        List<Book> candidates = new ArrayList<>(parsed.books.size());
+        List<String> candidateRecords = new ArrayList<>(parsed.books.size());
+        for (int i = 0; i < parsed.books.size(); i++) {
+            Book book = parsed.books.get(i);
+            if (progress.seenIsbns.add(book.getIsbn())) {
+                candidates.add(book);
+                candidateRecords.add(parsed.records.get(i));
+            } else {
+                writeReject(rejects, parsed.records.get(i), "Duplicate ISBN in import file: " + book.getIsbn(), progress);
+            }
+        }
+
+        // Duplicates of books already in the catalog are found with one query per batch,
+        // asking only about the ISBNs the filter may have seen
+        Set<String> existing = bookDAO.findExistingIsbns(candidates.stream()
+                .map(Book::getIsbn).filter(isbnFilter::mightExist).collect(Collectors.toList()));
+        List<Book> toInsert = new ArrayList<>(candidates.size());
+        List<String> toInsertRecords = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (existing.contains(candidates.get(i).getIsbn())) {
+                writeReject(rejects, candidateRecords.get(i), "ISBN already exists in the system: " + candidates.get(i).getIsbn(), progress);
+            } else {
+                toInsert.add(candidates.get(i));
+                toInsertRecords.add(candidateRecords.get(i));
+            }
+        }
+
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        // One transaction per batch: the driver may send a batch as several multi-row INSERTs, and a failure
+        // in a later one must not leave the earlier rows committed while the whole batch is reported rejected
+        Connection conn = null;
+        try {
+            conn = TransactionContext.begin();
+            bookDAO.saveAll(toInsert);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            // The batch failed as a whole (e.g. a concurrent insert of the same ISBN): none of it was stored
+            DatabaseConfig.rollbackTransaction(conn);
+            logger.log(Level.WARNING, "Book import batch failed", e);
+            for (String record : toInsertRecords) {
+                writeReject(rejects, record, "Batch insert failed: " + e.getMessage(), progress);
+            }
+            return;
+        } finally {
+            // Release the transaction connection back to the pool
+            if (conn != null) {
+                TransactionContext.end();
+            }
+        }
+        toInsert.forEach(book -> isbnFilter.add(book.getIsbn()));
+        toInsert.forEach(searchIndex::put);
+        progress.rowsImported += toInsert.size();
+    }
+
+    // Appends a refused row and the reason to the rejects file
+    private static void writeReject(BufferedWriter rejects, String record, String reason, ImportProgress progress)
+            throws IOException {
+        rejects.write(record);
+        rejects.write(',');
+        rejects.write(CSVImportUtil.escapeField(reason));
+        rejects.write('\n');
+        progress.rowsRejected++;
+    }
+
+    // Books parsed from one chunk of the import file, with the rows that failed parsing or validation
+    private static class ParsedChunk {
+        private final List<Book> books = new ArrayList<>();
+        private final List<String> records = new ArrayList<>();
+        private final List<String> rejectedRecords = new ArrayList<>();
+        private final List<String> rejectReasons = new ArrayList<>();
+
+        private void reject(String record, String reason) {
+            rejectedRecords.add(record);
+            rejectReasons.add(reason);
+        }
+    }
+
+    // Running totals of an import (only touched by the thread running importBooks)
+    private static class ImportProgress {
+        private final Set<String> seenIsbns = new HashSet<>();
+        private long rowsRead = 0;
+        private long rowsImported = 0;
+        private long rowsRejected = 0;
     }
 }
\ No newline at end of file
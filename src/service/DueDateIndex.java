@@ -0,0 +1,359 @@
+package service;
+
+import domain.Loan;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// In-memory index of the loans that are still out, bucketed by due date
+// Works like a two-level timing wheel: the next WHEEL_DAYS days each have their own slot, loans due later
+// wait in a sorted overflow map and drop into a slot once their day comes into range, and loans whose day
+// has passed sit in the overdue bucket. "Due on day X" and "what became overdue today" only touch one bucket,
+// and moving to a new day fires overdue events without querying the loans table
+public class DueDateIndex {
+    private static final Logger logger = Logger.getLogger(DueDateIndex.class.getName());
+    // Days covered by the wheel's slots (the loan period is 14 days, so almost every loan lands in a slot)
+    private static final int WHEEL_DAYS = 64;
+
+    // Loan that is still out, as the index keeps it
+    public static class DueLoan {
+        private final int loanId;
+        private final int bookId;
+        private final int memberId;
+        private final long dueDay;
+
+        private DueLoan(int loanId, int bookId, int memberId, long dueDay) {
+            this.loanId = loanId;
+            this.bookId = bookId;
+            this.memberId = memberId;
+            this.dueDay = dueDay;
+        }
+
+        public int getLoanId() {
+            return loanId;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public int getMemberId() {
+            return memberId;
+        }
+
+        public LocalDate getDueDate() {
+            return LocalDate.ofEpochDay(dueDay);
+        }
+    }
+
+    // Every indexed loan by id, so a return finds its bucket directly
+    private final Map<Integer, DueLoan> loans = new HashMap<>();
+    // Slot i holds the loans due on the day d with d % WHEEL_DAYS == i, for d in [today, today + WHEEL_DAYS)
+    private final List<Map<Integer, DueLoan>> slots = new ArrayList<>(WHEEL_DAYS);
+    // Loans due after the wheel's range, by due day
+    private final TreeMap<Long, Map<Integer, DueLoan>> overflow = new TreeMap<>();
+    // Loans whose due date is before today
+    private final Map<Integer, DueLoan> overdue = new LinkedHashMap<>();
+    // First day of the wheel, i.e. "today" as far as the index is concerned
+    private long today = LocalDate.now().toEpochDay();
+
+    // Told (due date, loans) when loans cross their due date
+    private final List<BiConsumer<LocalDate, List<DueLoan>>> overdueListeners = new CopyOnWriteArrayList<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Changes that arrive while the index is being loaded, replayed once the load completes
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private volatile boolean ready = false;
+    private boolean building = false;
+
+    public DueDateIndex() {
+        for (int i = 0; i < WHEEL_DAYS; i++) {
+            slots.add(new LinkedHashMap<>());
+        }
+    }
+
+    // Fills the index with the loans that are still out (typically reader::findActiveLoans)
+    // The loans are read only after the index starts queueing changes, so a loan created or returned
+    // while they are being read is replayed afterwards instead of being lost
+    // Returns false if it was already loaded or another thread is loading it
+    public boolean build(Supplier<? extends Collection<Loan>> activeLoansReader, LocalDate currentDate) {
+        synchronized (pendingChanges) {
+            if (building || ready) {
+                return false;
+            }
+            building = true;
+        }
+
+        Collection<Loan> activeLoans;
+        try {
+            activeLoans = activeLoansReader.get();
+        } catch (RuntimeException e) {
+            synchronized (pendingChanges) {
+                building = false;
+                pendingChanges.clear();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            today = currentDate.toEpochDay();
+            for (Loan loan : activeLoans) {
+                if (loan.getId() != null && loan.getDueDate() != null) {
+                    placeLocked(toDueLoan(loan));
+                }
+            }
+        } catch (RuntimeException e) {
+            clearLocked();
+            synchronized (pendingChanges) {
+                building = false;
+                pendingChanges.clear();
+            }
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Replay the loans created or returned while we were reading, then open the index
+        synchronized (pendingChanges) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            building = false;
+            ready = true;
+        }
+        logger.info(() -> "Due date index built: " + size() + " loans out, " + getOverdueCount() + " overdue");
+        return true;
+    }
+
+    // True once the index has been loaded and can answer queries
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Registers a listener told about loans crossing their due date when the index moves to a new day
+    public void addOverdueListener(BiConsumer<LocalDate, List<DueLoan>> listener) {
+        overdueListeners.add(listener);
+    }
+
+    // Adds a loan that was just created
+    public void add(Loan loan) {
+        if (loan.getId() == null || loan.getDueDate() == null) {
+            return;
+        }
+        DueLoan entry = toDueLoan(loan);
+        applyOrQueue(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(entry.loanId);
+                placeLocked(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Removes a loan that was returned
+    public void remove(Integer loanId) {
+        applyOrQueue(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(loanId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Moves the index to a new day: every loan due before that day moves to the overdue bucket and
+    // the listeners are told, one call per due date; returns how many loans became overdue
+    public int advanceTo(LocalDate currentDate) {
+        long target = currentDate.toEpochDay();
+        Map<Long, List<DueLoan>> expired = new TreeMap<>();
+
+        lock.writeLock().lock();
+        try {
+            while (today < target) {
+                // The slot for today empties into the overdue bucket...
+                Map<Integer, DueLoan> slot = slots.get(slotOf(today));
+                if (!slot.isEmpty()) {
+                    expired.put(today, new ArrayList<>(slot.values()));
+                    overdue.putAll(slot);
+                    slot.clear();
+                }
+                today++;
+                // ...and the day entering the wheel's range takes its loans from the overflow map
+                NavigableMap<Long, Map<Integer, DueLoan>> arriving = overflow.headMap(today + WHEEL_DAYS, false);
+                for (Map<Integer, DueLoan> bucket : arriving.values()) {
+                    bucket.values().forEach(entry -> slots.get(slotOf(entry.dueDay)).put(entry.loanId, entry));
+                }
+                arriving.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Listeners run outside the lock so they can query the index or the database
+        int count = 0;
+        for (Map.Entry<Long, List<DueLoan>> day : expired.entrySet()) {
+            LocalDate dueDate = LocalDate.ofEpochDay(day.getKey());
+            count += day.getValue().size();
+            for (BiConsumer<LocalDate, List<DueLoan>> listener : overdueListeners) {
+                try {
+                    listener.accept(dueDate, day.getValue());
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Overdue listener failed", e);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Loans due on the given day (an overdue day returns the loans of that day still out)
+    public List<DueLoan> getLoansDueOn(LocalDate date) {
+        long day = date.toEpochDay();
+        lock.readLock().lock();
+        try {
+            List<DueLoan> result = new ArrayList<>();
+            if (day < today) {
+                for (DueLoan entry : overdue.values()) {
+                    if (entry.dueDay == day) {
+                        result.add(entry);
+                    }
+                }
+            } else if (day < today + WHEEL_DAYS) {
+                result.addAll(slots.get(slotOf(day)).values());
+            } else {
+                result.addAll(overflow.getOrDefault(day, Map.of()).values());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loans that become overdue on the given day, i.e. those due the day before
+    public List<DueLoan> getLoansBecomingOverdueOn(LocalDate date) {
+        return getLoansDueOn(date.minusDays(1));
+    }
+
+    // Loans due from today up to and including today + days, in due date order
+    public List<DueLoan> getLoansDueWithin(int days) {
+        lock.readLock().lock();
+        try {
+            List<DueLoan> result = new ArrayList<>();
+            long last = today + Math.max(0, days);
+            for (long day = today; day <= last && day < today + WHEEL_DAYS; day++) {
+                result.addAll(slots.get(slotOf(day)).values());
+            }
+            if (last >= today + WHEEL_DAYS) {
+                overflow.headMap(last, true).values().forEach(bucket -> result.addAll(bucket.values()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loans whose due date has passed
+    public List<DueLoan> getOverdueLoans() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(overdue.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getOverdueCount() {
+        lock.readLock().lock();
+        try {
+            return overdue.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of loans in the index
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return loans.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Puts a loan in the bucket matching its due day
+    private void placeLocked(DueLoan entry) {
+        loans.put(entry.loanId, entry);
+        bucketOf(entry.dueDay, true).put(entry.loanId, entry);
+    }
+
+    private void removeLocked(Integer loanId) {
+        DueLoan entry = loans.remove(loanId);
+        if (entry == null) {
+            return;
+        }
+        Map<Integer, DueLoan> bucket = bucketOf(entry.dueDay, false);
+        if (bucket != null) {
+            bucket.remove(loanId);
+            if (bucket.isEmpty() && entry.dueDay >= today + WHEEL_DAYS) {
+                overflow.remove(entry.dueDay);
+            }
+        }
+    }
+
+    // Bucket holding the loans due on a day: overdue, one of the wheel's slots, or the overflow map
+    private Map<Integer, DueLoan> bucketOf(long day, boolean create) {
+        if (day < today) {
+            return overdue;
+        }
+        if (day < today + WHEEL_DAYS) {
+            return slots.get(slotOf(day));
+        }
+        return create ? overflow.computeIfAbsent(day, key -> new LinkedHashMap<>()) : overflow.get(day);
+    }
+
+    private void clearLocked() {
+        loans.clear();
+        overdue.clear();
+        overflow.clear();
+        for (Map<Integer, DueLoan> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    private void applyOrQueue(Runnable change) {
+        synchronized (pendingChanges) {
+            if (building) {
+                pendingChanges.add(change);
+                return;
+            }
+            if (!ready) {
+                // Not loaded yet: the load will read the current database state anyway
+                return;
+            }
+        }
+        change.run();
+    }
+
+    private static int slotOf(long day) {
+        return (int) Math.floorMod(day, (long) WHEEL_DAYS);
+    }
+
+    static DueLoan toDueLoan(Loan loan) {
+        return new DueLoan(loan.getId(), loan.getBookId(), loan.getMemberId(), loan.getDueDate().toEpochDay());
+    }
+}
@@ -0,0 +1,346 @@
+package service;
+
+import dao.LoanDAO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+// Read-only snapshot of the loans table laid out column by column, for reports over the whole history
+// Each column is one primitive array indexed by row number: ids, epoch-day dates, a status code byte and the
+// fine in cents, with book titles stored once in a dictionary and referenced by code. A row costs about
+// 37 bytes instead of a Loan with boxed ids, LocalDates and three strings, and a scan walks flat arrays
+// Queries take the row number: predicates and group keys read the columns through the accessors below
+// (e.g. row -> store.status(row) == LoanColumnStore.OVERDUE), and every operator splits the rows into
+// segments that are scanned in parallel, then merges the per-segment results
+// No screen or API endpoint uses it yet (see LoanService.loadLoanColumnStore)
+public class LoanColumnStore {
+    private static final Logger logger = Logger.getLogger(LoanColumnStore.class.getName());
+
+    // Status codes of the status column
+    public static final byte ACTIVE = 0;
+    public static final byte RETURNED = 1;
+    public static final byte OVERDUE = 2;
+    private static final String[] STATUS_NAMES = {"ACTIVE", "RETURNED", "OVERDUE"};
+
+    // Return day of a loan that is still out
+    public static final int NOT_RETURNED = -1;
+    // Segments smaller than this are not worth a task of their own
+    private static final int MIN_SEGMENT_ROWS = 1 << 15;
+
+    private final int size;
+    private final int[] ids;
+    private final int[] bookIds;
+    private final int[] memberIds;
+    private final int[] loanDays;
+    private final int[] dueDays;
+    private final int[] returnDays;
+    private final byte[] statuses;
+    private final long[] fineCents;
+    private final int[] titleCodes;
+    private final String[] titles;
+    private final int maxBookId;
+    private final int maxMemberId;
+
+    private LoanColumnStore(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.bookIds = builder.bookIds;
+        this.memberIds = builder.memberIds;
+        this.loanDays = builder.loanDays;
+        this.dueDays = builder.dueDays;
+        this.returnDays = builder.returnDays;
+        this.statuses = builder.statuses;
+        this.fineCents = builder.fineCents;
+        this.titleCodes = builder.titleCodes;
+        this.titles = builder.titles.toArray(new String[0]);
+        this.maxBookId = builder.maxBookId;
+        this.maxMemberId = builder.maxMemberId;
+    }
+
+    // Loads a snapshot from a row source (typically loanDAO::streamRows); rows are appended as they arrive
+    public static LoanColumnStore build(Consumer<LoanDAO.LoanRowConsumer> source) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        source.accept(builder::add);
+        builder.trim();
+        LoanColumnStore store = new LoanColumnStore(builder);
+        logger.info(() -> "Loan column store loaded: " + store.size + " loans, " + store.titles.length
+                + " titles in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return store;
+    }
+
+    // Number of loans in the snapshot
+    public int size() {
+        return size;
+    }
+
+    // Column accessors, by row number (0 .. size() - 1)
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public int bookId(int row) {
+        return bookIds[row];
+    }
+
+    public int memberId(int row) {
+        return memberIds[row];
+    }
+
+    // Dates are epoch days (LocalDate.toEpochDay())
+    public int loanDay(int row) {
+        return loanDays[row];
+    }
+
+    public int dueDay(int row) {
+        return dueDays[row];
+    }
+
+    // NOT_RETURNED while the book is out
+    public int returnDay(int row) {
+        return returnDays[row];
+    }
+
+    // One of ACTIVE, RETURNED, OVERDUE
+    public byte status(int row) {
+        return statuses[row];
+    }
+
+    public long fineCents(int row) {
+        return fineCents[row];
+    }
+
+    // Code of the book title in the dictionary (0 .. titleCount() - 1)
+    public int titleCode(int row) {
+        return titleCodes[row];
+    }
+
+    // Dictionary of book titles
+    public int titleCount() {
+        return titles.length;
+    }
+
+    public String title(int code) {
+        return titles[code];
+    }
+
+    // Highest ids present, for sizing arrays grouped by book or member
+    public int maxBookId() {
+        return maxBookId;
+    }
+
+    public int maxMemberId() {
+        return maxMemberId;
+    }
+
+    public static String statusName(byte status) {
+        return STATUS_NAMES[status];
+    }
+
+    // Number of rows matching the predicate
+    public long count(IntPredicate where) {
+        return scan(() -> new long[1], (partial, row) -> {
+            if (where.test(row)) {
+                partial[0]++;
+            }
+        }, (a, b) -> {
+            a[0] += b[0];
+            return a;
+        })[0];
+    }
+
+    // Sum of a value over the rows matching the predicate
+    public long sum(IntPredicate where, IntToLongFunction value) {
+        return scan(() -> new long[1], (partial, row) -> {
+            if (where.test(row)) {
+                partial[0] += value.applyAsLong(row);
+            }
+        }, (a, b) -> {
+            a[0] += b[0];
+            return a;
+        })[0];
+    }
+
+    // Row numbers matching the predicate, in ascending order (a selection to read columns from)
+    public int[] filter(IntPredicate where) {
+        int[][] parts = IntStream.range(0, segmentCount()).parallel()
+                .mapToObj(segment -> {
+                    int from = segmentStart(segment);
+                    int to = segmentStart(segment + 1);
+                    int[] rows = new int[to - from];
+                    int found = 0;
+                    for (int row = from; row < to; row++) {
+                        if (where.test(row)) {
+                            rows[found++] = row;
+                        }
+                    }
+                    return Arrays.copyOf(rows, found);
+                })
+                .toArray(int[][]::new);
+
+        int total = 0;
+        for (int[] part : parts) {
+            total += part.length;
+        }
+        int[] rows = new int[total];
+        int position = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, rows, position, part.length);
+            position += part.length;
+        }
+        return rows;
+    }
+
+    // Number of matching rows per key; key maps a row to 0 .. keyCount - 1 (e.g. status, title code, member id)
+    public long[] countBy(IntPredicate where, IntUnaryOperator key, int keyCount) {
+        return sumBy(where, key, keyCount, row -> 1);
+    }
+
+    // Sum of a value over the matching rows, per key (same keys as countBy)
+    public long[] sumBy(IntPredicate where, IntUnaryOperator key, int keyCount, IntToLongFunction value) {
+        return scan(() -> new long[keyCount], (partial, row) -> {
+            if (where.test(row)) {
+                partial[key.applyAsInt(row)] += value.applyAsLong(row);
+            }
+        }, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        });
+    }
+
+    // The most borrowed titles with their loan counts, most borrowed first
+    public Map<String, Long> topTitles(int limit) {
+        long[] counts = countBy(row -> true, this::titleCode, titles.length);
+        Integer[] codes = new Integer[titles.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = i;
+        }
+        Arrays.sort(codes, (a, b) -> Long.compare(counts[b], counts[a]));
+
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, codes.length); i++) {
+            top.put(titles[codes[i]], counts[codes[i]]);
+        }
+        return top;
+    }
+
+    // Runs the scanner over every row, one partial result per segment, then merges the partials
+    private <A> A scan(Supplier<A> newPartial, RowScanner<A> scanner, BinaryOperator<A> merge) {
+        return IntStream.range(0, segmentCount()).parallel()
+                .mapToObj(segment -> {
+                    A partial = newPartial.get();
+                    int to = segmentStart(segment + 1);
+                    for (int row = segmentStart(segment); row < to; row++) {
+                        scanner.accept(partial, row);
+                    }
+                    return partial;
+                })
+                .reduce(merge)
+                .orElseGet(newPartial);
+    }
+
+    // A few segments per worker thread, so an uneven predicate cost still spreads out
+    private int segmentCount() {
+        int bySize = (size + MIN_SEGMENT_ROWS - 1) / MIN_SEGMENT_ROWS;
+        return Math.max(1, Math.min(bySize, ForkJoinPool.getCommonPoolParallelism() * 4));
+    }
+
+    private int segmentStart(int segment) {
+        return (int) ((long) size * segment / segmentCount());
+    }
+
+    @FunctionalInterface
+    private interface RowScanner<A> {
+        void accept(A partial, int row);
+    }
+
+    // Collects the rows while they stream in, growing the columns as needed
+    private static class Builder {
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] bookIds = new int[1024];
+        private int[] memberIds = new int[1024];
+        private int[] loanDays = new int[1024];
+        private int[] dueDays = new int[1024];
+        private int[] returnDays = new int[1024];
+        private byte[] statuses = new byte[1024];
+        private long[] fineCents = new long[1024];
+        private int[] titleCodes = new int[1024];
+        private final Map<String, Integer> codesByTitle = new HashMap<>();
+        private final List<String> titles = new ArrayList<>();
+        private int maxBookId;
+        private int maxMemberId;
+
+        private void add(int id, int bookId, int memberId, int loanDay, int dueDay, int returnDay,
+                         String status, long fine, String bookTitle) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            bookIds[size] = bookId;
+            memberIds[size] = memberId;
+            loanDays[size] = loanDay;
+            dueDays[size] = dueDay;
+            returnDays[size] = returnDay;
+            statuses[size] = statusCode(status);
+            fineCents[size] = fine;
+            titleCodes[size] = codesByTitle.computeIfAbsent(bookTitle, title -> {
+                titles.add(title);
+                return titles.size() - 1;
+            });
+            maxBookId = Math.max(maxBookId, bookId);
+            maxMemberId = Math.max(maxMemberId, memberId);
+            size++;
+        }
+
+        // Grows by half, so the spare capacity stays small next to the columns themselves
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            loanDays = Arrays.copyOf(loanDays, capacity);
+            dueDays = Arrays.copyOf(dueDays, capacity);
+            returnDays = Arrays.copyOf(returnDays, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            fineCents = Arrays.copyOf(fineCents, capacity);
+            titleCodes = Arrays.copyOf(titleCodes, capacity);
+        }
+
+        // Cuts the columns to the rows loaded; one column at a time, so only one spare copy exists at once
+        private void trim() {
+            ids = Arrays.copyOf(ids, size);
+            bookIds = Arrays.copyOf(bookIds, size);
+            memberIds = Arrays.copyOf(memberIds, size);
+            loanDays = Arrays.copyOf(loanDays, size);
+            dueDays = Arrays.copyOf(dueDays, size);
+            returnDays = Arrays.copyOf(returnDays, size);
+            statuses = Arrays.copyOf(statuses, size);
+            fineCents = Arrays.copyOf(fineCents, size);
+            titleCodes = Arrays.copyOf(titleCodes, size);
+        }
+
+        private static byte statusCode(String status) {
+            for (byte code = 0; code < STATUS_NAMES.length; code++) {
+                if (STATUS_NAMES[code].equals(status)) {
+                    return code;
+                }
+            }
+            throw new IllegalStateException("Unknown loan status: " + status);
+        }
+    }
+}
@@ -1,89 +1,184 @@
 package service;
 
+import config.AppConfig;
 import config.DatabaseConfig;
+import config.TransactionContext;
 import dao.LoanDAO;
-import dao.LoanDAOJDBC;
 import domain.Loan;
+import domain.ReturnOutcome;
 import exceptions.BusinessException;
+import exceptions.NotFoundException;
+import exceptions.ValidationException;
+import util.AsyncExecutor;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class LoanService {
     private LoanDAO loanDAO;
     private BookService bookService;
     private MemberService memberService;
 
-    // Constants for business rules
-    private static final int LOAN_DAYS = 14;
-    private static final double FINE_PER_DAY = 5.00;
-    private static final int MAX_BOOKS_PER_MEMBER = 3;
+    // Largest page a caller can ask for at once
+    private static final int MAX_PAGE_SIZE = 500;
+    // Loans loaded per IN (...) query during a batch return
+    private static final int RETURN_LOOKUP_CHUNK = 1000;
+    // Background task repairing the members' active-loan counters
+    private ScheduledExecutorService reconciler;
+    // Loans still out, bucketed by due date (answers "due soon" / "overdue today" without a query)
+    private final DueDateIndex dueDateIndex = new DueDateIndex();
 
-    public LoanService() {
-        // Initialize DAO and service dependencies
-        this.loanDAO = new LoanDAOJDBC();
-        this.bookService = new BookService();
-        this.memberService = new MemberService();
+    // Constructor - works on the given DAO and services (ApplicationContext passes the shared ones)
+    public LoanService(LoanDAO loanDAO, BookService bookService, MemberService memberService) {
+        this.loanDAO = loanDAO;
+        this.bookService = bookService;
+        this.memberService = memberService;
     }
 
     public void createLoan(Integer bookId, Integer memberId) throws BusinessException {
+        // A member the status cache already knows to be inactive is refused without a round-trip
+        if (memberService.isKnownInactive(memberId)) {
+            throw new BusinessException("The member is not active");
+        }
+
         Connection conn = null;
         try {
-            // Get connection and start transaction
-            conn = DatabaseConfig.getTransactionConnection();
-            conn.setAutoCommit(false); // Start transaction
+            // Start a transaction bound to this thread: every DAO call below joins this connection
+            conn = TransactionContext.begin();
 
-            // Business validations
-            if (!bookService.isBookAvailableForLoan(bookId)) {
-                throw new BusinessException("The book is not available for loan");
-            }
-
-            if (!memberService.isMemberActive(memberId)) {
-                throw new BusinessException("The member is not active");
-            }
+            // Business rules come from the current configuration snapshot
+            AppConfig rules = AppConfig.get();
 
-            int activeLoans = loanDAO.countActiveLoansByMember(memberId);
-            if (activeLoans >= MAX_BOOKS_PER_MEMBER) {
-                throw new BusinessException("The member already has the maximum of " + MAX_BOOKS_PER_MEMBER + " active loans");
+            // Take a copy of the book and a slot on the member's loan counter in one guarded statement: it only
+            // matches when a copy is left and the member is active and below the limit, so two desks can never
+            // lend the same last copy or push a member over the limit
+            if (!bookService.reserveBookCopyForMember(bookId, memberId, rules.getMaxBooksPerMember())) {
+                throw new BusinessException(describeRefusedCheckout(memberId));
             }
 
-            // Create loan
+            // Create the loan
             LocalDate loanDate = LocalDate.now();
-            LocalDate dueDate = loanDate.plusDays(LOAN_DAYS);
+            LocalDate dueDate = loanDate.plusDays(rules.getLoanDays());
 
             Loan loan = new Loan(bookId, memberId, loanDate, dueDate);
-
-            // Save loan to database
             loanDAO.save(loan);
 
-            // Update book stock (decrease available copies)
-            bookService.updateBookStock(bookId, -1);
-
             // Commit transaction if everything is successful
             conn.commit();
-            DatabaseConfig.getLogger().info("Loan created successfully: Book ID " + bookId + ", Member ID " + memberId);
+            dueDateIndex.add(loan);
+            DatabaseConfig.getLogger().info(() -> "Loan created successfully: Book ID " + bookId + ", Member ID " + memberId);
 
         } catch (SQLException e) {
             // Rollback transaction in case of error
             DatabaseConfig.rollbackTransaction(conn);
-            DatabaseConfig.getLogger().severe("Transaction rolled back due to error: " + e.getMessage());
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
             throw new BusinessException("Error creating loan: " + e.getMessage());
         } catch (BusinessException e) {
             // Rollback for business rule violations
             DatabaseConfig.rollbackTransaction(conn);
-            DatabaseConfig.getLogger().warning("Transaction rolled back due to business rule: " + e.getMessage());
+            DatabaseConfig.getLogger().warning(() -> "Transaction rolled back due to business rule: " + e.getMessage());
             throw e; // Re-throw the original exception
+        } catch (RuntimeException e) {
+            // Rollback if a DAO write failed part-way through
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error creating loan: " + e.getMessage(), e);
         } finally {
-            // Clean up resources
+            // Release the transaction connection back to the pool (auto-commit is restored there)
             if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Restore auto-commit
-                    DatabaseConfig.closeConnection(conn);
-                } catch (SQLException e) {
-                    DatabaseConfig.getLogger().warning("Error cleaning up connection: " + e.getMessage());
-                }
+                TransactionContext.end();
+            }
+        }
+    }
+
+    // Checks out several books to one member at once (the member's "cart"), all or nothing
+    // Eligibility and the loan limit are checked once for the whole cart (one guarded update of the member's
+    // active-loan counter), every copy is reserved with one guarded UPDATE and the loans are inserted as
+    // one batch: four round-trips whatever the cart size
+    public List<Loan> createLoans(Integer memberId, List<Integer> bookIds) throws BusinessException {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new ValidationException("No books selected for loan");
+        }
+        Set<Integer> uniqueBookIds = new LinkedHashSet<>(bookIds);
+        if (uniqueBookIds.contains(null)) {
+            throw new ValidationException("Book ID is required");
+        }
+        if (uniqueBookIds.size() != bookIds.size()) {
+            throw new ValidationException("The same book cannot be borrowed twice in one checkout");
+        }
+        // One snapshot of the business rules for the whole checkout
+        AppConfig rules = AppConfig.get();
+        if (bookIds.size() > rules.getMaxBooksPerMember()) {
+            throw new ValidationException("A member can borrow at most " + rules.getMaxBooksPerMember() + " books");
+        }
+        if (memberService.isKnownInactive(memberId)) {
+            throw new BusinessException("The member is not active");
+        }
+
+        Connection conn = null;
+        try {
+            // Start a transaction bound to this thread: every DAO call below joins this connection
+            conn = TransactionContext.begin();
+
+            // Take loan slots for the whole cart on the member's counter (checks active status and the limit)
+            if (!loanDAO.reserveLoanSlots(memberId, bookIds.size(), rules.getMaxBooksPerMember())) {
+                throw new BusinessException(describeIneligibleMember(memberId, bookIds.size()));
+            }
+
+            // Take one copy of every book; if any is gone the whole checkout is rolled back
+            if (!bookService.reserveBookCopies(uniqueBookIds)) {
+                throw new BusinessException("One or more of the selected books are not available for loan");
+            }
+
+            // Create all loans with the same dates
+            LocalDate loanDate = LocalDate.now();
+            LocalDate dueDate = loanDate.plusDays(rules.getLoanDays());
+            List<Loan> loans = new ArrayList<>(bookIds.size());
+            for (Integer bookId : bookIds) {
+                loans.add(new Loan(bookId, memberId, loanDate, dueDate));
+            }
+            loanDAO.saveAll(loans);
+
+            // Commit transaction if everything is successful
+            conn.commit();
+            loans.forEach(dueDateIndex::add);
+            DatabaseConfig.getLogger().info(() -> "Loans created successfully: " + loans.size() + " books, Member ID " + memberId);
+            return loans;
+
+        } catch (SQLException e) {
+            // Rollback transaction in case of error
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error creating loans: " + e.getMessage());
+        } catch (BusinessException e) {
+            // Rollback for business rule violations
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().warning(() -> "Transaction rolled back due to business rule: " + e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            // Rollback if a DAO write failed part-way through
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error creating loans: " + e.getMessage(), e);
+        } finally {
+            // Release the transaction connection back to the pool (auto-commit is restored there)
+            if (conn != null) {
+                TransactionContext.end();
             }
         }
     }
@@ -91,21 +186,21 @@ public class LoanService {
     public void returnLoan(Integer loanId) throws BusinessException {
         Connection conn = null;
         try {
-            // Get connection and start transaction
-            conn = DatabaseConfig.getTransactionConnection();
-            conn.setAutoCommit(false); // Start transaction
+            // Start a transaction bound to this thread: every DAO call below joins this connection
+            conn = TransactionContext.begin();
 
-            // Find loan by ID
-            Optional<Loan> loanOpt = loanDAO.findById(loanId);
+            // Find the loan and lock its row until the transaction ends, so two desks (or this call and a
+            // batch return) cannot both see it outstanding and give the slot and the copy back twice
+            List<Loan> locked = loanId == null ? List.of() : loanDAO.findByIdsForUpdate(List.of(loanId));
 
-            if (loanOpt.isEmpty()) {
-                throw new BusinessException("Loan not found");
+            if (locked.isEmpty()) {
+                throw new NotFoundException("Loan not found");
             }
 
-            Loan loan = loanOpt.get();
+            Loan loan = locked.get(0);
 
-            // Check if loan is already returned
-            if (!"ACTIVE".equals(loan.getStatus())) {
+            // Check if loan is already returned (overdue loans can of course still be returned)
+            if (!isOutstanding(loan)) {
                 throw new BusinessException("The loan has already been returned");
             }
 
@@ -118,32 +213,132 @@ public class LoanService {
             loan.setFineAmount(fine);
             loanDAO.update(loan);
 
+            // Give the member's loan slot back
+            loanDAO.releaseLoanSlots(Map.of(loan.getMemberId(), 1));
+
             // Update book stock (increase available copies)
             bookService.updateBookStock(loan.getBookId(), 1);
 
             // Commit transaction
             conn.commit();
-            DatabaseConfig.getLogger().info("Return processed successfully: Loan ID " + loanId);
+            dueDateIndex.remove(loanId);
+            DatabaseConfig.getLogger().info(() -> "Return processed successfully: Loan ID " + loanId);
 
         } catch (SQLException e) {
             // Rollback in case of error
             DatabaseConfig.rollbackTransaction(conn);
-            DatabaseConfig.getLogger().severe("Transaction rolled back due to error: " + e.getMessage());
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
             throw new BusinessException("Error processing return: " + e.getMessage());
         } catch (BusinessException e) {
             // Rollback for business rule violations
             DatabaseConfig.rollbackTransaction(conn);
-            DatabaseConfig.getLogger().warning("Transaction rolled back due to business rule: " + e.getMessage());
+            DatabaseConfig.getLogger().warning(() -> "Transaction rolled back due to business rule: " + e.getMessage());
             throw e;
+        } catch (RuntimeException e) {
+            // Rollback if a DAO write failed part-way through
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error processing return: " + e.getMessage(), e);
         } finally {
-            // Clean up resources
+            // Release the transaction connection back to the pool (auto-commit is restored there)
             if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Restore auto-commit
-                    DatabaseConfig.closeConnection(conn);
-                } catch (SQLException e) {
-                    DatabaseConfig.getLogger().warning("Error cleaning up connection: " + e.getMessage());
+                TransactionContext.end();
+            }
+        }
+    }
+
+    // Returns many loans at once (e.g. the returns bin at closing time) in a single transaction
+    // Loans are loaded with IN queries, fines are computed in memory, and the loan updates and the
+    // per-book stock increments (one per book, however many copies came back) are sent as JDBC batches
+    // Loans that cannot be returned are reported in the result, in the order given, and do not stop the others
+    public List<ReturnOutcome> returnLoans(Collection<Integer> loanIds) throws BusinessException {
+        List<ReturnOutcome> outcomes = new ArrayList<>();
+        if (loanIds == null || loanIds.isEmpty()) {
+            return outcomes;
+        }
+
+        Connection conn = null;
+        try {
+            // Start a transaction bound to this thread: every DAO call below joins this connection
+            conn = TransactionContext.begin();
+
+            // Load (and lock) every requested loan
+            Set<Integer> uniqueIds = new LinkedHashSet<>();
+            for (Integer loanId : loanIds) {
+                if (loanId != null) {
+                    uniqueIds.add(loanId);
+                }
+            }
+            Map<Integer, Loan> loansById = new HashMap<>();
+            List<Integer> chunk = new ArrayList<>(RETURN_LOOKUP_CHUNK);
+            for (Integer loanId : uniqueIds) {
+                chunk.add(loanId);
+                if (chunk.size() == RETURN_LOOKUP_CHUNK) {
+                    loanDAO.findByIdsForUpdate(chunk).forEach(loan -> loansById.put(loan.getId(), loan));
+                    chunk.clear();
+                }
+            }
+            loanDAO.findByIdsForUpdate(chunk).forEach(loan -> loansById.put(loan.getId(), loan));
+
+            // Apply the same rules as returnLoan to each one
+            LocalDate today = LocalDate.now();
+            List<Loan> updates = new ArrayList<>();
+            Map<Integer, Integer> stockChanges = new HashMap<>();
+            Map<Integer, Integer> releasedSlots = new HashMap<>();
+            Set<Integer> seen = new HashSet<>();
+            for (Integer loanId : loanIds) {
+                if (loanId == null) {
+                    outcomes.add(new ReturnOutcome(null, "Loan ID is required"));
+                    continue;
+                }
+                if (!seen.add(loanId)) {
+                    outcomes.add(new ReturnOutcome(loanId, "Loan listed more than once"));
+                    continue;
+                }
+                Loan loan = loansById.get(loanId);
+                if (loan == null) {
+                    outcomes.add(new ReturnOutcome(loanId, "Loan not found"));
+                    continue;
+                }
+                if (!isOutstanding(loan)) {
+                    outcomes.add(new ReturnOutcome(loanId, "The loan has already been returned"));
+                    continue;
                 }
+
+                double fine = calculateFine(loan, today);
+                loan.setReturnDate(today);
+                loan.setStatus("RETURNED");
+                loan.setFineAmount(fine);
+                updates.add(loan);
+                stockChanges.merge(loan.getBookId(), 1, Integer::sum);
+                releasedSlots.merge(loan.getMemberId(), 1, Integer::sum);
+                outcomes.add(new ReturnOutcome(loanId, fine));
+            }
+
+            // Write everything in three batches and commit once
+            loanDAO.updateAll(updates);
+            loanDAO.releaseLoanSlots(releasedSlots);
+            bookService.updateBookStocks(stockChanges);
+            conn.commit();
+            updates.forEach(loan -> dueDateIndex.remove(loan.getId()));
+            DatabaseConfig.getLogger().info(() -> "Batch return processed: " + updates.size() + " returned, "
+                    + (loanIds.size() - updates.size()) + " rejected");
+            return outcomes;
+
+        } catch (SQLException e) {
+            // Rollback in case of error - nothing of the batch is applied
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error processing returns: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Rollback if a DAO write failed part-way through
+            DatabaseConfig.rollbackTransaction(conn);
+            DatabaseConfig.getLogger().severe(() -> "Transaction rolled back due to error: " + e.getMessage());
+            throw new BusinessException("Error processing returns: " + e.getMessage(), e);
+        } finally {
+            // Release the transaction connection back to the pool (auto-commit is restored there)
+            if (conn != null) {
+                TransactionContext.end();
             }
         }
     }
@@ -153,6 +348,42 @@ public class LoanService {
         return loanDAO.findAll();
     }
 
+    // Load the whole loans table into a columnar snapshot for reports (see LoanColumnStore)
+    // Rows are streamed straight into primitive columns, no Loan objects are built
+    // Nothing in the application calls this yet: the only loan report today is the overdue list, which
+    // shows individual loans and pages them from the database
+    public LoanColumnStore loadLoanColumnStore() {
+        return LoanColumnStore.build(loanDAO::streamRows);
+    }
+
+    // Push every loan to the consumer one at a time (used by exports)
+    public void streamAllLoans(Consumer<Loan> consumer) {
+        loanDAO.streamAll(consumer);
+    }
+
+    // Push every overdue loan to the consumer one at a time (used by exports)
+    public void streamOverdueLoans(Consumer<Loan> consumer) {
+        loanDAO.streamOverdue(consumer);
+    }
+
+    // Get one page of loans ordered by due date
+    // Pass the due date and id of the last loan already shown (or nulls for the first page)
+    public List<Loan> getLoansPage(LocalDate lastDueDate, Integer lastId, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return loanDAO.findAllAfter(lastDueDate, lastId, limit);
+    }
+
+    // Get the loans at a position in due date order (for jumping straight to a row of a table)
+    public List<Loan> getLoansAt(int offset, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return loanDAO.findPageAt(Math.max(0, offset), limit);
+    }
+
+    // Count every loan
+    public int countLoans() {
+        return loanDAO.countAll();
+    }
+
     // Get only active loans
     public List<Loan> getActiveLoans() {
         return loanDAO.findActiveLoans();
@@ -163,23 +394,215 @@ public class LoanService {
         return loanDAO.findOverdueLoans();
     }
 
+    // Get the first overdue loans, at most pageSize of them (capped like a page)
+    public List<Loan> getOverdueLoans(int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return loanDAO.findOverdueLoans(limit);
+    }
+
     // Get loans for a specific member
     public List<Loan> getLoansByMember(Integer memberId) {
         return loanDAO.findByMemberId(memberId);
     }
 
+    // Get a member's first loans, at most pageSize of them (capped like a page)
+    public List<Loan> getLoansByMember(Integer memberId, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return loanDAO.findByMemberId(memberId, limit);
+    }
+
+    // Non-blocking variants for the UI: the same work, run on a virtual thread (see AsyncExecutor)
+    public CompletableFuture<Void> createLoanAsync(Integer bookId, Integer memberId) {
+        return AsyncExecutor.run(() -> createLoan(bookId, memberId));
+    }
+
+    public CompletableFuture<Void> returnLoanAsync(Integer loanId) {
+        return AsyncExecutor.run(() -> returnLoan(loanId));
+    }
+
+    public CompletableFuture<List<Loan>> getAllLoansAsync() {
+        return AsyncExecutor.supply(this::getAllLoans);
+    }
+
+    public CompletableFuture<List<Loan>> getActiveLoansAsync() {
+        return AsyncExecutor.supply(this::getActiveLoans);
+    }
+
+    public CompletableFuture<List<Loan>> getOverdueLoansAsync() {
+        return AsyncExecutor.supply(this::getOverdueLoans);
+    }
+
+    public CompletableFuture<List<Loan>> getLoansByMemberAsync(Integer memberId) {
+        return AsyncExecutor.supply(() -> getLoansByMember(memberId));
+    }
+
     // Count active loans for a specific member
     public int countActiveLoansByMember(Integer memberId) {
         return loanDAO.countActiveLoansByMember(memberId);
     }
 
+    // Loans still out that are due between today and today + days, earliest first
+    // Answered from the due date index; until it is loaded (or if loading failed) only that due date
+    // range is read from the database
+    public List<DueDateIndex.DueLoan> getLoansDueWithin(int days) {
+        if (dueDateIndex.isReady()) {
+            return dueDateIndex.getLoansDueWithin(days);
+        }
+        LocalDate today = LocalDate.now();
+        return toDueLoans(loanDAO.findOutstandingDueBetween(today, today.plusDays(Math.max(0, days))));
+    }
+
+    // Loans that cross their due date today (those due yesterday and not returned)
+    public List<DueDateIndex.DueLoan> getLoansBecomingOverdueToday() {
+        if (dueDateIndex.isReady()) {
+            return dueDateIndex.getLoansBecomingOverdueOn(LocalDate.now());
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        return toDueLoans(loanDAO.findOutstandingDueBetween(yesterday, yesterday));
+    }
+
+    private static List<DueDateIndex.DueLoan> toDueLoans(List<Loan> loans) {
+        List<DueDateIndex.DueLoan> dueLoans = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            dueLoans.add(DueDateIndex.toDueLoan(loan));
+        }
+        return dueLoans;
+    }
+
+    // Loads the due date index in the background (called once at startup)
+    public void startDueDateIndexLoad() {
+        if (dueDateIndex.isReady()) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                dueDateIndex.build(loanDAO::findActiveLoans, LocalDate.now());
+            } catch (RuntimeException e) {
+                DatabaseConfig.getLogger().log(Level.WARNING, "Could not load the due date index, due date queries will use the database", e);
+            }
+        }, "libronova-due-date-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Registers a listener told about loans crossing their due date (e.g. to send reminders)
+    public void addOverdueListener(BiConsumer<LocalDate, List<DueDateIndex.DueLoan>> listener) {
+        dueDateIndex.addOverdueListener(listener);
+    }
+
+    // Moves the due date index to the given day, firing overdue events for the loans that crossed their due date
+    public int advanceDueDateIndex(LocalDate currentDate) {
+        return dueDateIndex.advanceTo(currentDate);
+    }
+
+    // Recomputes every member's active-loan counter from the loans table and repairs the wrong ones
+    // Returns the number of counters that had drifted (e.g. after loans were edited directly in the database)
+    public int reconcileActiveLoanCounters() {
+        int repaired = loanDAO.reconcileActiveLoanCounters();
+        if (repaired > 0) {
+            DatabaseConfig.getLogger().warning(() -> "Repaired " + repaired + " drifted active-loan counters");
+        } else {
+            DatabaseConfig.getLogger().fine("Active-loan counters are consistent");
+        }
+        return repaired;
+    }
+
+    // Runs the counter reconciliation in the background every loans.reconcileIntervalMinutes (called once at startup)
+    public void startActiveLoanReconciliation() {
+        synchronized (this) {
+            if (reconciler != null) {
+                return;
+            }
+            long interval = DatabaseConfig.getLongSetting("loans.reconcileIntervalMinutes", 360L);
+            if (interval <= 0) {
+                return;
+            }
+            reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "libronova-loan-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciler.scheduleWithFixedDelay(() -> {
+                try {
+                    reconcileActiveLoanCounters();
+                } catch (RuntimeException e) {
+                    DatabaseConfig.getLogger().log(Level.WARNING, "Active-loan counter reconciliation failed", e);
+                }
+            }, 0, interval, TimeUnit.MINUTES);
+        }
+    }
+
+    // Marks every loan whose due date has passed as OVERDUE and stores its accrued fine
+    // Works in batches of loans.overdueSweepBatchSize rows, each committed on its own, so the table is never
+    // locked for long; returns the number of loans newly marked overdue
+    public int sweepOverdueLoans() {
+        LocalDate today = LocalDate.now();
+        double finePerDay = AppConfig.get().getFinePerDay();
+        int batchSize = Math.max(1, DatabaseConfig.getIntSetting("loans.overdueSweepBatchSize", 1000));
+        long start = System.currentTimeMillis();
+
+        int marked = 0;
+        int batch;
+        do {
+            batch = loanDAO.markOverdue(today, finePerDay, batchSize);
+            marked += batch;
+        } while (batch == batchSize);
+
+        // Loans that were already overdue owe one more day of fine
+        int accrued = 0;
+        do {
+            batch = loanDAO.accrueOverdueFines(today, finePerDay, batchSize);
+            accrued += batch;
+        } while (batch == batchSize);
+
+        int newlyOverdue = marked;
+        int finesUpdated = accrued;
+        DatabaseConfig.getLogger().info(() -> "Overdue sweep: " + newlyOverdue + " loans marked overdue, "
+                + finesUpdated + " fines updated in " + (System.currentTimeMillis() - start) + " ms");
+        return marked;
+    }
+
+    // A loan is still out (and can be returned) while it is ACTIVE or OVERDUE
+    private static boolean isOutstanding(Loan loan) {
+        return "ACTIVE".equals(loan.getStatus()) || "OVERDUE".equals(loan.getStatus());
+    }
+
+    // Works out why a single checkout was refused - only runs on the (rare) failure path
+    // The guarded update does not say which check failed: if the member could borrow, the book was the problem
+    private String describeRefusedCheckout(Integer memberId) {
+        if (memberService.isMemberActive(memberId)
+                && countActiveLoansByMember(memberId) < AppConfig.get().getMaxBooksPerMember()) {
+            return "The book is not available for loan";
+        }
+        return describeIneligibleMember(memberId, 1);
+    }
+
+    // Works out why a member was refused a loan - only runs on the (rare) failure path
+    // A single checkout keeps the original message; a multi-book checkout also says how many loans are out
+    private String describeIneligibleMember(Integer memberId, int requested) {
+        if (!memberService.isMemberActive(memberId)) {
+            return "The member is not active";
+        }
+        int maxBooks = AppConfig.get().getMaxBooksPerMember();
+        if (requested == 1) {
+            return "The member already has the maximum of " + maxBooks + " active loans";
+        }
+        return "The member has " + countActiveLoansByMember(memberId) + " active loans and can borrow at most "
+                + maxBooks + " books";
+    }
+
     // Calculate fine amount for overdue loan
     private double calculateFine(Loan loan) {
+        return calculateFine(loan, LocalDate.now());
+    }
+
+    // Calculate fine amount for a loan returned on the given day
+    private double calculateFine(Loan loan, LocalDate returnDate) {
         // Check if loan is overdue
-        if (LocalDate.now().isAfter(loan.getDueDate())) {
+        if (returnDate.isAfter(loan.getDueDate())) {
             // Calculate days overdue
-            long daysOverdue = LocalDate.now().toEpochDay() - loan.getDueDate().toEpochDay();
-            return daysOverdue * FINE_PER_DAY;
+            long daysOverdue = returnDate.toEpochDay() - loan.getDueDate().toEpochDay();
+            return daysOverdue * AppConfig.get().getFinePerDay();
         }
         return 0.0; // No fine if not overdue
     }
@@ -1,104 +1,241 @@
 package service;
 
+import config.DatabaseConfig;
+import config.TransactionContext;
+import dao.LoanDAO;
 import dao.MemberDAO;
-import dao.MemberDAOJDBC;
 import domain.Member;
 import exceptions.BusinessException;
+import exceptions.ValidationException;
+import util.AsyncExecutor;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class MemberService {
     private MemberDAO memberDAO;
+    // Only used to count a member's loans before deactivating them
+    private LoanDAO loanDAO;
     private static final Logger logger = Logger.getLogger(MemberService.class.getName());
+    // Largest page a caller can ask for at once
+    private static final int MAX_PAGE_SIZE = 500;
 
-    // Constructor - initializes the MemberService with database access
-    public MemberService() {
-        this.memberDAO = new MemberDAOJDBC();
+    // Every member ID number, so most new members skip the uniqueness query
+    private final UniqueValueFilter idNumberFilter = new UniqueValueFilter("idNumber", 1_000_000L);
+    // Active/inactive flag per member id, so status checks do not load the whole member row
+    private final MemberStatusCache statusCache;
+
+    // Constructor - works on the given DAOs (ApplicationContext shares them with the other services)
+    public MemberService(MemberDAO memberDAO, LoanDAO loanDAO) {
+        this.memberDAO = memberDAO;
+        this.loanDAO = loanDAO;
+        this.statusCache = new MemberStatusCache(
+                DatabaseConfig.getIntSetting("cache.memberStatus.maxSize", 100_000),
+                DatabaseConfig.getLongSetting("cache.memberStatus.ttlSeconds", 60L) * 1000);
         logger.info("MemberService initialized");
     }
 
+    // Loads every existing ID number into the uniqueness filter in the background (called once at startup)
+    public void startIdNumberFilterLoad() {
+        idNumberFilter.loadInBackground(memberDAO::streamIdNumbers);
+    }
+
+    // Fills the member status cache with active members in the background (called once at startup)
+    // Stops at cache.memberStatus.maxSize members, so the cache keeps room for the ones looked up later
+    public void startStatusCachePreload() {
+        Thread loader = new Thread(() -> {
+            try {
+                long stamp = statusCache.stamp();
+                List<Member> members = memberDAO.findActiveMembers();
+                int count = Math.min(members.size(), statusCache.capacity());
+                for (int i = 0; i < count; i++) {
+                    statusCache.put(members.get(i).getId(), true, stamp);
+                }
+                logger.info(() -> "Member status cache preloaded with " + count + " active members");
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not preload the member status cache", e);
+            }
+        }, "libronova-member-status");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
     // Adds a new member to the system after validation
     public void addMember(Member member) throws BusinessException {
-        logger.info("Attempting to add new member: " + member.getIdNumber());
+        logger.fine(() -> "Attempting to add new member: " + member.getIdNumber());
 
         validateMember(member);
 
-        // Check if ID number is unique in the system
-        if (!memberDAO.isIdNumberUnique(member.getIdNumber())) {
-            logger.warning("ID number already exists: " + member.getIdNumber());
+        // Check if ID number is unique in the system (only asks the database if the filter has seen it)
+        if (idNumberFilter.mightExist(member.getIdNumber()) && !memberDAO.isIdNumberUnique(member.getIdNumber())) {
+            logger.warning(() -> "ID number already exists: " + member.getIdNumber());
             throw new BusinessException("Identification number already exists in the system: " + member.getIdNumber());
         }
 
-        memberDAO.save(member);
-        logger.info("Member added successfully: " + member.getIdNumber());
+        // The UNIQUE index still has the last word: another desk may have registered the same ID number meanwhile
+        try {
+            memberDAO.save(member);
+        } catch (RuntimeException e) {
+            if (DatabaseConfig.isDuplicateKey(e)) {
+                idNumberFilter.add(member.getIdNumber());
+                throw new BusinessException("Identification number already exists in the system: " + member.getIdNumber(), e);
+            }
+            throw e;
+        }
+        idNumberFilter.add(member.getIdNumber());
+        logger.info(() -> "Member added successfully: " + member.getIdNumber());
     }
 
     // Retrieves all members from the database
     public List<Member> getAllMembers() {
-        logger.info("Retrieving all members");
+        logger.fine("Retrieving all members");
         List<Member> members = memberDAO.findAll();
-        logger.info("Retrieved " + members.size() + " members");
+        logger.fine(() -> "Retrieved " + members.size() + " members");
         return members;
     }
 
+    // Pushes every member to the consumer one at a time (used by exports)
+    public void streamAllMembers(Consumer<Member> consumer) {
+        logger.fine("Streaming all members");
+        memberDAO.streamAll(consumer);
+    }
+
+    // Retrieves one page of members ordered by name
+    // Pass the names and id of the last member already shown (or nulls for the first page)
+    public List<Member> getMembersPage(String lastFirstName, String lastLastName, Integer lastId, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        logger.fine(() -> "Retrieving members page after ID: " + lastId);
+        return memberDAO.findAllAfter(lastFirstName, lastLastName, lastId, limit);
+    }
+
+    // Retrieves the members at a position in name order (for jumping straight to a row of a table)
+    public List<Member> getMembersAt(int offset, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        logger.fine(() -> "Retrieving members page at offset: " + offset);
+        return memberDAO.findPageAt(Math.max(0, offset), limit);
+    }
+
+    // Number of members (active or not)
+    public int countMembers() {
+        return memberDAO.countAll();
+    }
+
     // Gets only active members (not deactivated)
     public List<Member> getActiveMembers() {
-        logger.info("Retrieving active members");
+        logger.fine("Retrieving active members");
         List<Member> members = memberDAO.findActiveMembers();
-        logger.info("Retrieved " + members.size() + " active members");
+        logger.fine(() -> "Retrieved " + members.size() + " active members");
         return members;
     }
 
+    // Non-blocking variants for the UI: the same work, run on a virtual thread (see AsyncExecutor)
+    public CompletableFuture<List<Member>> getAllMembersAsync() {
+        return AsyncExecutor.supply(this::getAllMembers);
+    }
+
+    public CompletableFuture<List<Member>> getActiveMembersAsync() {
+        return AsyncExecutor.supply(this::getActiveMembers);
+    }
+
+    public CompletableFuture<Optional<Member>> getMemberByIdNumberAsync(String idNumber) {
+        return AsyncExecutor.supply(() -> getMemberByIdNumber(idNumber));
+    }
+
     // Finds a member by their unique identification number
     public Optional<Member> getMemberByIdNumber(String idNumber) {
-        logger.info("Searching for member by ID number: " + idNumber);
+        logger.fine(() -> "Searching for member by ID number: " + idNumber);
         return memberDAO.findByIdNumber(idNumber);
     }
 
     // Updates an existing member's information
     public void updateMember(Member member) throws BusinessException {
-        logger.info("Attempting to update member ID: " + member.getId());
+        logger.fine(() -> "Attempting to update member ID: " + member.getId());
 
         validateMember(member);
 
-        // Check for ID number conflicts with other members
-        Optional<Member> existingMember = memberDAO.findByIdNumber(member.getIdNumber());
+        // Check for ID number conflicts with other members (no query needed for a number the filter never saw)
+        Optional<Member> existingMember = idNumberFilter.mightExist(member.getIdNumber())
+                ? memberDAO.findByIdNumber(member.getIdNumber()) : Optional.empty();
         if (existingMember.isPresent() && !existingMember.get().getId().equals(member.getId())) {
-            logger.warning("ID number conflict during update: " + member.getIdNumber());
+            logger.warning(() -> "ID number conflict during update: " + member.getIdNumber());
             throw new BusinessException("Identification number already exists in the system: " + member.getIdNumber());
         }
 
-        memberDAO.update(member);
-        logger.info("Member updated successfully: " + member.getIdNumber());
+        try {
+            memberDAO.update(member);
+        } catch (RuntimeException e) {
+            if (DatabaseConfig.isDuplicateKey(e)) {
+                throw new BusinessException("Identification number already exists in the system: " + member.getIdNumber(), e);
+            }
+            throw e;
+        }
+        idNumberFilter.add(member.getIdNumber());
+        forgetStatus(member.getId());
+        logger.info(() -> "Member updated successfully: " + member.getIdNumber());
     }
 
     // Deactivates a member (soft delete) if they have no active loans
     public void deactivateMember(Integer id) throws BusinessException {
-        logger.info("Attempting to deactivate member ID: " + id);
+        logger.fine(() -> "Attempting to deactivate member ID: " + id);
 
-        // Check if member has any active loans before deactivation
-        LoanService loanService = new LoanService();
-        int activeLoans = loanService.countActiveLoansByMember(id);
+        // Check if member has any active loans before deactivation (one read of the member's loan counter)
+        int activeLoans = loanDAO.countActiveLoansByMember(id);
 
         if (activeLoans > 0) {
-            logger.warning("Cannot deactivate member with active loans: " + id + " (loans: " + activeLoans + ")");
+            logger.warning(() -> "Cannot deactivate member with active loans: " + id + " (loans: " + activeLoans + ")");
             throw new BusinessException("Cannot deactivate member because they have " + activeLoans + " active loans");
         }
 
         memberDAO.deactivateMember(id);
-        logger.info("Member deactivated successfully: " + id);
+        forgetStatus(id);
+        logger.info(() -> "Member deactivated successfully: " + id);
     }
 
     // Checks if a member is currently active
+    // Answered from the status cache when possible (at most cache.memberStatus.ttlSeconds old)
     public boolean isMemberActive(Integer memberId) {
-        logger.fine("Checking member active status - Member ID: " + memberId);
+        logger.fine(() -> "Checking member active status - Member ID: " + memberId);
+        if (memberId == null) {
+            return false;
+        }
+        Boolean cached = statusCache.get(memberId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = statusCache.stamp();
         Optional<Member> member = memberDAO.findById(memberId);
         boolean active = member.isPresent() && member.get().getActive();
-        logger.fine("Member ID " + memberId + " active: " + active);
+        // Unknown members are cached as inactive too; rows read inside a transaction may still roll back
+        if (!TransactionContext.isActive()) {
+            statusCache.put(memberId, active, stamp);
+        }
+        logger.fine(() -> "Member ID " + memberId + " active: " + active);
         return active;
     }
 
+    // Cache-only check for checkouts: true when the status cache already knows the member is inactive
+    // Never queries; the guarded update (BookDAO.reserveCopyAndLoanSlot) still decides for everyone else
+    public boolean isKnownInactive(Integer memberId) {
+        return memberId != null && Boolean.FALSE.equals(statusCache.get(memberId));
+    }
+
+    // Returns hit/miss figures of the member status cache and the ID number filter
+    public String getStatusCacheStatistics() {
+        return statusCache.getStatistics() + "; " + idNumberFilter.getStatistics();
+    }
+
+    // Drops a member's cached status now and again when the surrounding transaction ends
+    private void forgetStatus(Integer memberId) {
+        if (memberId != null) {
+            statusCache.invalidate(memberId);
+            TransactionContext.onEnd(() -> statusCache.invalidate(memberId));
+        }
+    }
+
     // Validates member data meets all business rules
     private void validateMember(Member member) throws BusinessException {
         logger.fine("Validating member data");
@@ -106,23 +243,23 @@ public class MemberService {
         // Check required fields are not empty
         if (member.getIdNumber() == null || member.getIdNumber().trim().isEmpty()) {
             logger.warning("Member validation failed: ID number is required");
-            throw new BusinessException("Identification number is required");
+            throw new ValidationException("Identification number is required");
         }
 
         if (member.getFirstName() == null || member.getFirstName().trim().isEmpty()) {
             logger.warning("Member validation failed: First name is required");
-            throw new BusinessException("First name is required");
+            throw new ValidationException("First name is required");
         }
 
         if (member.getLastName() == null || member.getLastName().trim().isEmpty()) {
             logger.warning("Member validation failed: Last name is required");
-            throw new BusinessException("Last name is required");
+            throw new ValidationException("Last name is required");
         }
 
         // Validate email format if provided
         if (member.getEmail() != null && !member.getEmail().contains("@")) {
             logger.warning("Member validation failed: Invalid email format");
-            throw new BusinessException("Email does not have a valid format");
+            throw new ValidationException("Email does not have a valid format");
         }
 
         logger.fine("Member validation passed");
@@ -0,0 +1,202 @@
+package service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers whether a member is active, keyed by member id, without loading the whole member row
+// Entries live in plain int/long arrays (open addressing, linear probing) instead of a Map<Integer, ...>,
+// so a cached member costs a few bytes and a lookup allocates nothing
+// Entries expire after a TTL, which bounds how long a change made by another instance can go unnoticed
+class MemberStatusCache {
+    // Slot states: 0 = empty, otherwise the member id (member ids start at 1)
+    private static final int EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private long[] expiresAt = new long[INITIAL_CAPACITY];
+    // Generation each entry was stored in; bumping the generation invalidates everything at once
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private int generation = 0;
+    // Incremented by every invalidation, so a value read from the database before an invalidation is not stored
+    private long invalidations = 0;
+    // Earliest time a full cache may be swept for expired entries again
+    private long nextPurgeAt = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    MemberStatusCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(16, maxSize);
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    // Cached status: TRUE/FALSE, or null when the member is not cached (or the entry expired)
+    synchronized Boolean get(int memberId) {
+        int slot = find(memberId);
+        if (slot >= 0 && versions[slot] == generation && System.currentTimeMillis() < expiresAt[slot]) {
+            hits.increment();
+            return active[slot];
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Stamp to take before reading from the database and hand back to put
+    synchronized long stamp() {
+        return invalidations;
+    }
+
+    // Stores a status read from the database, unless the member was invalidated while we were reading
+    synchronized void put(int memberId, boolean isActive, long stamp) {
+        if (memberId <= 0 || ttlMillis == 0 || stamp != invalidations) {
+            return;
+        }
+        int slot = find(memberId);
+        if (slot < 0) {
+            if (size >= maxSize) {
+                // Full: make room by dropping expired entries (a full pass, so at most every quarter TTL);
+                // if none expired, keep what is cached and do not store this one
+                long now = System.currentTimeMillis();
+                if (now >= nextPurgeAt) {
+                    resize(keys.length);
+                    nextPurgeAt = now + Math.max(1000, ttlMillis / 4);
+                }
+                if (size >= maxSize) {
+                    return;
+                }
+            } else if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            slot = insertionSlot(memberId);
+            keys[slot] = memberId;
+            size++;
+        }
+        active[slot] = isActive;
+        expiresAt[slot] = System.currentTimeMillis() + ttlMillis;
+        versions[slot] = generation;
+    }
+
+    // Forgets one member (after an update or deactivation)
+    synchronized void invalidate(int memberId) {
+        invalidations++;
+        int slot = find(memberId);
+        if (slot >= 0) {
+            remove(slot);
+        }
+    }
+
+    // Forgets everyone in O(1): entries of older generations are ignored from now on
+    synchronized void invalidateAll() {
+        invalidations++;
+        generation++;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Most members the cache holds at once
+    int capacity() {
+        return maxSize;
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    // Share of lookups answered from memory (0.0 - 1.0)
+    double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    // One-line summary used when logging cache statistics
+    String getStatistics() {
+        return String.format("Member status cache: size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%",
+                size(), maxSize, getHitCount(), getMissCount(), getHitRate() * 100);
+    }
+
+    // Slot holding the member, or -1
+    private int find(int memberId) {
+        int mask = keys.length - 1;
+        for (int slot = mix(memberId) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == memberId) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    // First free slot for a member that is not in the table
+    private int insertionSlot(int memberId) {
+        int mask = keys.length - 1;
+        int slot = mix(memberId) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Removes a slot and shifts the following entries back so lookups never stop at a hole too early
+    private void remove(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        keys[hole] = EMPTY;
+        size--;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry into the hole if its home slot is not between the hole and its current slot
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                active[hole] = active[next];
+                expiresAt[hole] = expiresAt[next];
+                versions[hole] = versions[next];
+                keys[next] = EMPTY;
+                hole = next;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        boolean[] oldActive = active;
+        long[] oldExpiresAt = expiresAt;
+        int[] oldVersions = versions;
+
+        keys = new int[capacity];
+        active = new boolean[capacity];
+        expiresAt = new long[capacity];
+        versions = new int[capacity];
+        size = 0;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < oldKeys.length; i++) {
+            // Expired entries and entries of old generations are dropped while we are at it
+            if (oldKeys[i] != EMPTY && oldVersions[i] == generation && now < oldExpiresAt[i]) {
+                int slot = insertionSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                active[slot] = oldActive[i];
+                expiresAt[slot] = oldExpiresAt[i];
+                versions[slot] = oldVersions[i];
+                size++;
+            }
+        }
+    }
+
+    // Spreads sequential ids over the table
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
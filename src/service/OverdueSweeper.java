@@ -0,0 +1,68 @@
+package service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps the OVERDUE status and the accrued fines up to date so overdue listings are a plain status lookup
+// Runs once at startup and then shortly after every midnight (rescheduled each day so clock changes are followed)
+public class OverdueSweeper {
+    private static final Logger logger = Logger.getLogger(OverdueSweeper.class.getName());
+    // Run a little after midnight so "today" has certainly changed on the database server too
+    private static final long SECONDS_AFTER_MIDNIGHT = 30;
+
+    private final LoanService loanService;
+    private ScheduledExecutorService scheduler;
+
+    public OverdueSweeper(LoanService loanService) {
+        this.loanService = loanService;
+    }
+
+    // Starts the sweeper (only the first call has an effect)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "libronova-overdue-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::sweepAndReschedule);
+        // Report the loans that cross their due date as the days go by
+        loanService.addOverdueListener((dueDate, loans) ->
+                logger.info(() -> loans.size() + " loans due on " + dueDate + " are now overdue"));
+    }
+
+    // Stops future sweeps (a sweep in progress finishes its current batch)
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void sweepAndReschedule() {
+        try {
+            loanService.sweepOverdueLoans();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Overdue sweep failed, it will be retried after the next midnight", e);
+        }
+        // Move the in-memory due date index to the new day too (fires the overdue events)
+        loanService.advanceDueDateIndex(LocalDate.now());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = LocalDate.now().plusDays(1).atStartOfDay().plusSeconds(SECONDS_AFTER_MIDNIGHT);
+        long delay = Math.max(1, Duration.between(now, next).getSeconds());
+        synchronized (this) {
+            if (scheduler != null && !scheduler.isShutdown()) {
+                scheduler.schedule(this::sweepAndReschedule, delay, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package service;
+
+import config.DatabaseConfig;
+import util.BloomFilter;
+import util.RowSource;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Remembers every value of a UNIQUE column (ISBNs, ID numbers) in a Bloom filter
+// so uniqueness checks only query the database when the value might already be taken
+// Until the existing values are loaded every check goes to the database
+class UniqueValueFilter {
+    private static final Logger logger = Logger.getLogger(UniqueValueFilter.class.getName());
+
+    private final String name;
+    private final BloomFilter filter;
+    private volatile boolean ready = false;
+    private boolean loading = false;
+    // How many checks were answered without a query
+    private final LongAdder skippedQueries = new LongAdder();
+    private final LongAdder checks = new LongAdder();
+
+    // Sized from config.properties: bloom.<name>.expectedInsertions and bloom.<name>.falsePositiveRate
+    UniqueValueFilter(String name, long defaultExpectedInsertions) {
+        this.name = name;
+        long expected = DatabaseConfig.getLongSetting("bloom." + name + ".expectedInsertions", defaultExpectedInsertions);
+        double fpp = DatabaseConfig.getDoubleSetting("bloom." + name + ".falsePositiveRate", 0.01);
+        this.filter = new BloomFilter(expected, fpp);
+    }
+
+    // Reads every existing value on a background thread (called once at startup)
+    void loadInBackground(RowSource<String> existingValues) {
+        synchronized (this) {
+            if (loading || ready) {
+                return;
+            }
+            loading = true;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                long[] count = {0};
+                existingValues.forEach(value -> {
+                    filter.put(value);
+                    count[0]++;
+                });
+                // Values added while we were reading are already in the filter too (see add)
+                ready = true;
+                logger.info(() -> "Loaded " + count[0] + " " + name + " values into the uniqueness filter ("
+                        + filter.getSizeInBytes() / 1024 + " KB) in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, e, () -> "Could not load the " + name + " filter, uniqueness checks will query the database");
+            } finally {
+                synchronized (this) {
+                    loading = false;
+                }
+            }
+        }, "libronova-" + name + "-filter");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Records a value that was just stored (also before loading finishes, so none can be missed)
+    void add(String value) {
+        if (value != null) {
+            filter.put(value);
+        }
+    }
+
+    // False only when the value is certainly not in the database, so the uniqueness query can be skipped
+    boolean mightExist(String value) {
+        checks.increment();
+        if (!ready || value == null || filter.mightContain(value)) {
+            return true;
+        }
+        skippedQueries.increment();
+        return false;
+    }
+
+    // One-line summary: how many checks were answered from memory
+    String getStatistics() {
+        return String.format("%s filter: ready=%s, checks=%d, queries skipped=%d", name, ready, checks.sum(), skippedQueries.sum());
+    }
+}
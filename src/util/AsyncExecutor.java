@@ -0,0 +1,57 @@
+package util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs blocking work (JDBC calls, exports, imports) off the UI thread, one virtual thread per task
+// A virtual thread parked on a JDBC socket read costs a few hundred bytes instead of a platform thread,
+// so many lookups can wait on the database at the same time; the connection pool still bounds how many
+// actually run at once
+public class AsyncExecutor {
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncExecutor() {}
+
+    // Runs the task in the background; the future completes with its result or its exception
+    // Cancelling the future also interrupts the task's thread (blocking JDBC calls may still finish first)
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // The executor itself, for code that takes an Executor (e.g. the HTTP server: one virtual thread per request)
+    public static Executor executor() {
+        return executor;
+    }
+
+    // Same as supply for tasks without a result
+    public static CompletableFuture<Void> run(ThrowingRunnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // A Runnable that may throw checked exceptions (service methods throw BusinessException)
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
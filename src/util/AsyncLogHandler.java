@@ -0,0 +1,205 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+// Log handler that never makes the logging thread wait for the disk or the console
+// Records go into a fixed-size ring buffer and a background thread hands them to the real handlers
+// (FileHandler, ConsoleHandler...); when the buffer is full, WARNING and SEVERE records are written right away
+// on the logging thread and lower levels are dropped and counted
+//
+// Configured in logging.properties:
+//   util.AsyncLogHandler.level    - lowest level accepted (default ALL)
+//   util.AsyncLogHandler.capacity - records the buffer can hold (default 8192)
+//   util.AsyncLogHandler.targets  - comma separated handler classes that do the actual writing
+public final class AsyncLogHandler extends Handler {
+    private static final String PREFIX = AsyncLogHandler.class.getName();
+    private static final int DEFAULT_CAPACITY = 8192;
+    // Records written per batch before the targets are flushed
+    private static final int DRAIN_BATCH = 256;
+
+    private final ArrayBlockingQueue<LogRecord> buffer;
+    private final List<Handler> targets = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    // Records put in the buffer / taken out and written so far; flush waits for the second to catch up
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object progress = new Object();
+    private long written = 0;
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    // Used by LogManager: everything comes from logging.properties
+    public AsyncLogHandler() {
+        this(readCapacity(), readTargets());
+        String level = LogManager.getLogManager().getProperty(PREFIX + ".level");
+        setLevel(level != null ? Level.parse(level.trim()) : Level.ALL);
+    }
+
+    public AsyncLogHandler(int capacity, List<Handler> targets) {
+        this.buffer = new ArrayBlockingQueue<>(Math.max(16, capacity));
+        this.targets.addAll(targets);
+        this.writer = new Thread(this::writeLoop, "libronova-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Runs on the logging thread: only a level check and a non-blocking insert
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // Reading the source class would make the record walk this thread's stack to find the caller,
+        // on every call; our loggers are named after their class, so set it from the logger name instead
+        // (setting it also tells the record not to infer the caller later on the writer thread)
+        record.setSourceClassName(record.getLoggerName());
+        if (buffer.offer(record)) {
+            enqueued.incrementAndGet();
+        } else if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            // Problems are never lost: pay for the write on this thread instead
+            writeBatch(new ArrayList<>(List.of(record)));
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Waits (at most a second) until what is already buffered has been written
+    @Override
+    public void flush() {
+        long goal = enqueued.get();
+        long deadline = System.currentTimeMillis() + 1000;
+        synchronized (progress) {
+            while (written < goal && writer.isAlive()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        for (Handler target : targets) {
+            target.flush();
+        }
+    }
+
+    // Writes everything still buffered, then closes the real handlers (LogManager calls this at shutdown)
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // The writer notices within a second; it is not interrupted so a write in progress completes
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeBatch(drainAll());
+        for (Handler target : targets) {
+            target.close();
+        }
+    }
+
+    // Number of records thrown away because the buffer was full
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>(DRAIN_BATCH);
+        while (!closed) {
+            try {
+                LogRecord first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, DRAIN_BATCH - 1);
+                int taken = batch.size();
+                writeBatch(batch);
+                batch.clear();
+                // Wake up flush() callers waiting for these records
+                synchronized (progress) {
+                    written += taken;
+                    progress.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private List<LogRecord> drainAll() {
+        List<LogRecord> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        return rest;
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        // Tell the readers of the log that something is missing
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            LogRecord warning = new LogRecord(Level.WARNING, "Log buffer full: " + lost + " log records were dropped");
+            warning.setLoggerName(PREFIX);
+            warning.setSourceClassName(PREFIX);
+            batch.add(0, warning);
+        }
+
+        for (LogRecord record : batch) {
+            for (Handler target : targets) {
+                try {
+                    target.publish(record);
+                } catch (RuntimeException e) {
+                    reportError("Log handler failed", e, ErrorManager.WRITE_FAILURE);
+                }
+            }
+        }
+        for (Handler target : targets) {
+            target.flush();
+        }
+    }
+
+    private static int readCapacity() {
+        String value = LogManager.getLogManager().getProperty(PREFIX + ".capacity");
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : DEFAULT_CAPACITY;
+        } catch (NumberFormatException e) {
+            return DEFAULT_CAPACITY;
+        }
+    }
+
+    // Creates the real handlers listed in util.AsyncLogHandler.targets (a ConsoleHandler if none)
+    private static List<Handler> readTargets() {
+        List<Handler> handlers = new ArrayList<>();
+        String value = LogManager.getLogManager().getProperty(PREFIX + ".targets");
+        if (value == null || value.isBlank()) {
+            value = "java.util.logging.ConsoleHandler";
+        }
+        for (String className : value.split("[,\\s]+")) {
+            if (className.isEmpty()) {
+                continue;
+            }
+            try {
+                handlers.add((Handler) Class.forName(className, true, ClassLoader.getSystemClassLoader())
+                        .getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Could not create log handler " + className + ": " + e);
+            }
+        }
+        return handlers;
+    }
+}
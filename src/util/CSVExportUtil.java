@@ -3,8 +3,9 @@ package util;
 import domain.Book;
 import domain.Loan;
 import domain.Member;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -18,10 +19,24 @@ public class CSVExportUtil {
     private static final DateTimeFormatter FILE_DATE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
 
-    // CSV file formatting constants
-    private static final String CSV_DELIMITER = ",";
-    private static final String CSV_QUOTE = "\"";
-    private static final String LINE_SEPARATOR = "\n";
+    // Column headers of each export
+    private static final String[] BOOKS_HEADER = {
+            "ISBN", "Title", "Author", "Year Published", "Genre",
+            "Total Copies", "Available Copies", "Created At"
+    };
+    private static final String[] OVERDUE_LOANS_HEADER = {
+            "Loan ID", "Book ISBN", "Book Title", "Member Name",
+            "Loan Date", "Due Date", "Days Overdue", "Fine Amount", "Status"
+    };
+    private static final String[] MEMBERS_HEADER = {
+            "ID Number", "First Name", "Last Name", "Email", "Phone",
+            "Membership Date", "Active Status", "Created At"
+    };
+    private static final String[] ALL_LOANS_HEADER = {
+            "Loan ID", "Book ISBN", "Book Title", "Member Name",
+            "Loan Date", "Due Date", "Return Date", "Days Overdue",
+            "Fine Amount", "Status", "Created At"
+    };
 
     //Export all books to CSV file with detailed information
     public static void exportBooksToCSV(List<Book> books, String filename) {
@@ -29,22 +44,7 @@ public class CSVExportUtil {
             logger.warning("Cannot export null books list");
             return;
         }
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Write the column headers at the top of the CSV file
-            writer.write(createBooksHeader());
-
-            // Write each book as a separate row in the CSV
-            for (Book book : books) {
-                writer.write(createBookRow(book));
-            }
-
-            logger.info("Successfully exported " + books.size() + " books to: " + filename);
-
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error exporting books to CSV: " + filename, e);
-            throw new RuntimeException("Failed to export books to CSV: " + e.getMessage(), e);
-        }
+        streamBooksToCSV(books::forEach, filename);
     }
 
     //Export books with automatically generated filename containing timestamp
@@ -60,22 +60,7 @@ public class CSVExportUtil {
             logger.warning("Cannot export null loans list");
             return;
         }
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Write column headers for overdue loans
-            writer.write(createOverdueLoansHeader());
-
-            // Write each overdue loan as a separate row
-            for (Loan loan : loans) {
-                writer.write(createOverdueLoanRow(loan));
-            }
-
-            logger.info("Successfully exported " + loans.size() + " overdue loans to: " + filename);
-
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error exporting overdue loans to CSV: " + filename, e);
-            throw new RuntimeException("Failed to export overdue loans to CSV: " + e.getMessage(), e);
-        }
+        streamOverdueLoansToCSV(loans::forEach, filename);
     }
     //Export overdue loans with automatically generated filename
     public static String exportOverdueLoansToCSV(List<Loan> loans) {
@@ -90,22 +75,7 @@ public class CSVExportUtil {
             logger.warning("Cannot export null members list");
             return;
         }
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Write column headers for members
-            writer.write(createMembersHeader());
-
-            // Write each member as a separate row
-            for (Member member : members) {
-                writer.write(createMemberRow(member));
-            }
-
-            logger.info("Successfully exported " + members.size() + " members to: " + filename);
-
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error exporting members to CSV: " + filename, e);
-            throw new RuntimeException("Failed to export members to CSV: " + e.getMessage(), e);
-        }
+        streamMembersToCSV(members::forEach, filename);
     }
     //Export members with automatically generated filename
     public static String exportMembersToCSV(List<Member> members) {
@@ -119,22 +89,7 @@ public class CSVExportUtil {
             logger.warning("Cannot export null loans list");
             return;
         }
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Write column headers for all loans
-            writer.write(createAllLoansHeader());
-
-            // Write each loan as a separate row
-            for (Loan loan : loans) {
-                writer.write(createAllLoanRow(loan));
-            }
-
-            logger.info("Successfully exported " + loans.size() + " loans to: " + filename);
-
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error exporting all loans to CSV: " + filename, e);
-            throw new RuntimeException("Failed to export loans to CSV: " + e.getMessage(), e);
-        }
+        streamAllLoansToCSV(loans::forEach, filename);
     }
     //Export all loans with automatically generated filename
     public static String exportAllLoansToCSV(List<Loan> loans) {
@@ -143,115 +98,182 @@ public class CSVExportUtil {
         return filename;
     }
 
-    //Private Helper Methods
-    //Create CSV header row for books export
-    private static String createBooksHeader() {
-        return String.join(CSV_DELIMITER,
-                "ISBN", "Title", "Author", "Year Published", "Genre",
-                "Total Copies", "Available Copies", "Created At"
-        ) + LINE_SEPARATOR;
-    }
+    //Streaming exports: rows are written as they arrive from the source (e.g. a database cursor),
+    //so memory use does not grow with the number of rows
 
-    //Create a CSV data row for a single book
-    private static String createBookRow(Book book) {
-        return String.join(CSV_DELIMITER,
-                escapeCsvField(book.getIsbn()),
-                escapeCsvField(book.getTitle()),
-                escapeCsvField(book.getAuthor()),
-                book.getYearPublished() != null ? book.getYearPublished().toString() : "",
-                escapeCsvField(book.getGenre()),
-                book.getTotalCopies().toString(),
-                book.getAvailableCopies().toString(),
-                book.getCreatedAt() != null ? book.getCreatedAt().toString() : ""
-        ) + LINE_SEPARATOR;
+    //Stream books to a CSV file
+    public static void streamBooksToCSV(RowSource<Book> books, String filename) {
+        long start = System.nanoTime();
+        try (CsvStreamWriter writer = new CsvStreamWriter(filename)) {
+            // Write the column headers at the top of the CSV file
+            writer.header(BOOKS_HEADER);
+            // Write each book as a separate row in the CSV
+            books.forEach(book -> writeRow(writer, () -> appendBookRow(writer, book)));
+            logExportCompleted("books", writer.getRowsWritten(), filename, start);
+
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.SEVERE, "Error exporting books to CSV: " + filename, e);
+            throw new RuntimeException("Failed to export books to CSV: " + e.getMessage(), e);
+        }
     }
 
-    //Create CSV header row for overdue loans export
-    private static String createOverdueLoansHeader() {
-        return String.join(CSV_DELIMITER,
-                "Loan ID", "Book ISBN", "Book Title", "Member Name",
-                "Loan Date", "Due Date", "Days Overdue", "Fine Amount", "Status"
-        ) + LINE_SEPARATOR;
+    //Stream books with automatically generated filename
+    public static String streamBooksToCSV(RowSource<Book> books) {
+        String filename = "books_export_" + LocalDateTime.now().format(FILE_DATE_FORMATTER) + ".csv";
+        streamBooksToCSV(books, filename);
+        return filename;
     }
 
-    //Create a CSV data row for a single overdue loan
-    private static String createOverdueLoanRow(Loan loan) {
-        long daysOverdue = DateUtils.calculateDaysOverdue(loan.getDueDate());
+    //Stream overdue loans to a CSV file
+    public static void streamOverdueLoansToCSV(RowSource<Loan> loans, String filename) {
+        long start = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        try (CsvStreamWriter writer = new CsvStreamWriter(filename)) {
+            // Write column headers for overdue loans
+            writer.header(OVERDUE_LOANS_HEADER);
+            // Write each overdue loan as a separate row
+            loans.forEach(loan -> writeRow(writer, () -> appendOverdueLoanRow(writer, loan, today)));
+            logExportCompleted("overdue loans", writer.getRowsWritten(), filename, start);
 
-        return String.join(CSV_DELIMITER,
-                loan.getId().toString(),
-                escapeCsvField(loan.getBookIsbn()),
-                escapeCsvField(loan.getBookTitle()),
-                escapeCsvField(loan.getMemberName()),
-                loan.getLoanDate().toString(),
-                loan.getDueDate().toString(),
-                String.valueOf(daysOverdue),
-                String.format("%.2f", loan.getFineAmount()),
-                escapeCsvField(loan.getStatus())
-        ) + LINE_SEPARATOR;
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.SEVERE, "Error exporting overdue loans to CSV: " + filename, e);
+            throw new RuntimeException("Failed to export overdue loans to CSV: " + e.getMessage(), e);
+        }
     }
 
-    //Create CSV header row for members export
-    private static String createMembersHeader() {
-        return String.join(CSV_DELIMITER,
-                "ID Number", "First Name", "Last Name", "Email", "Phone",
-                "Membership Date", "Active Status", "Created At"
-        ) + LINE_SEPARATOR;
+    //Stream overdue loans with automatically generated filename
+    public static String streamOverdueLoansToCSV(RowSource<Loan> loans) {
+        String filename = "overdue_loans_" + LocalDateTime.now().format(FILE_DATE_FORMATTER) + ".csv";
+        streamOverdueLoansToCSV(loans, filename);
+        return filename;
     }
 
-    //Create a CSV data row for a single member
-    private static String createMemberRow(Member member) {
-        return String.join(CSV_DELIMITER,
-                escapeCsvField(member.getIdNumber()),
-                escapeCsvField(member.getFirstName()),
-                escapeCsvField(member.getLastName()),
-                escapeCsvField(member.getEmail()),
-                escapeCsvField(member.getPhone()),
-                member.getMembershipDate().toString(),
-                member.getActive() ? "Active" : "Inactive",
-                member.getCreatedAt() != null ? member.getCreatedAt().toString() : ""
-        ) + LINE_SEPARATOR;
+    //Stream members to a CSV file
+    public static void streamMembersToCSV(RowSource<Member> members, String filename) {
+        long start = System.nanoTime();
+        try (CsvStreamWriter writer = new CsvStreamWriter(filename)) {
+            // Write column headers for members
+            writer.header(MEMBERS_HEADER);
+            // Write each member as a separate row
+            members.forEach(member -> writeRow(writer, () -> appendMemberRow(writer, member)));
+            logExportCompleted("members", writer.getRowsWritten(), filename, start);
+
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.SEVERE, "Error exporting members to CSV: " + filename, e);
+            throw new RuntimeException("Failed to export members to CSV: " + e.getMessage(), e);
+        }
     }
 
-    //Create CSV header row for all loans export
-    private static String createAllLoansHeader() {
-        return String.join(CSV_DELIMITER,
-                "Loan ID", "Book ISBN", "Book Title", "Member Name",
-                "Loan Date", "Due Date", "Return Date", "Days Overdue",
-                "Fine Amount", "Status", "Created At"
-        ) + LINE_SEPARATOR;
+    //Stream members with automatically generated filename
+    public static String streamMembersToCSV(RowSource<Member> members) {
+        String filename = "members_export_" + LocalDateTime.now().format(FILE_DATE_FORMATTER) + ".csv";
+        streamMembersToCSV(members, filename);
+        return filename;
     }
 
-    //Create a CSV data row for any loan (active or returned)
-    private static String createAllLoanRow(Loan loan) {
-        long daysOverdue = DateUtils.calculateDaysOverdue(loan.getDueDate());
+    //Stream every loan (complete loan history) to a CSV file
+    public static void streamAllLoansToCSV(RowSource<Loan> loans, String filename) {
+        long start = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        try (CsvStreamWriter writer = new CsvStreamWriter(filename)) {
+            // Write column headers for all loans
+            writer.header(ALL_LOANS_HEADER);
+            // Write each loan as a separate row
+            loans.forEach(loan -> writeRow(writer, () -> appendAllLoanRow(writer, loan, today)));
+            logExportCompleted("loans", writer.getRowsWritten(), filename, start);
 
-        return String.join(CSV_DELIMITER,
-                loan.getId().toString(),
-                escapeCsvField(loan.getBookIsbn()),
-                escapeCsvField(loan.getBookTitle()),
-                escapeCsvField(loan.getMemberName()),
-                loan.getLoanDate().toString(),
-                loan.getDueDate().toString(),
-                loan.getReturnDate() != null ? loan.getReturnDate().toString() : "Not Returned",
-                String.valueOf(daysOverdue),
-                String.format("%.2f", loan.getFineAmount()),
-                escapeCsvField(loan.getStatus()),
-                loan.getCreatedAt() != null ? loan.getCreatedAt().toString() : ""
-        ) + LINE_SEPARATOR;
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.SEVERE, "Error exporting all loans to CSV: " + filename, e);
+            throw new RuntimeException("Failed to export loans to CSV: " + e.getMessage(), e);
+        }
     }
 
-    //Escape special characters in CSV fields to prevent formatting issues
-    private static String escapeCsvField(String field) {
-        if (field == null) {
-            return "";
-        }
+    //Stream all loans with automatically generated filename
+    public static String streamAllLoansToCSV(RowSource<Loan> loans) {
+        String filename = "all_loans_" + LocalDateTime.now().format(FILE_DATE_FORMATTER) + ".csv";
+        streamAllLoansToCSV(loans, filename);
+        return filename;
+    }
+
+    //Private Helper Methods
+    //A row-writing step that may fail with an I/O error
+    private interface RowWriter {
+        void write() throws IOException;
+    }
 
-        // If field contains comma, quotes, or newlines, wrap in quotes and escape existing quotes
-        if (field.contains(CSV_DELIMITER) || field.contains(CSV_QUOTE) || field.contains("\n")) {
-            return CSV_QUOTE + field.replace(CSV_QUOTE, CSV_QUOTE + CSV_QUOTE) + CSV_QUOTE;
+    //Runs one row write inside a consumer, which cannot throw checked exceptions
+    private static void writeRow(CsvStreamWriter writer, RowWriter rowWriter) {
+        try {
+            rowWriter.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    //Log how many rows were written and how fast
+    private static void logExportCompleted(String what, long rows, String filename, long startNanos) {
+        double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
+        logger.info(String.format("Successfully exported %d %s to: %s in %.2f s (%.0f rows/sec)",
+                rows, what, filename, seconds, rows / seconds));
+    }
+
+    //Write a CSV data row for a single book
+    private static void appendBookRow(CsvStreamWriter writer, Book book) throws IOException {
+        writer.field(book.getIsbn())
+                .field(book.getTitle())
+                .field(book.getAuthor())
+                .field(book.getYearPublished())
+                .field(book.getGenre())
+                .field(book.getTotalCopies())
+                .field(book.getAvailableCopies())
+                .plain(book.getCreatedAt())
+                .endRow();
+    }
+
+    //Write a CSV data row for a single overdue loan
+    private static void appendOverdueLoanRow(CsvStreamWriter writer, Loan loan, long today) throws IOException {
+        long daysOverdue = today - loan.getDueDate().toEpochDay();
+
+        writer.field(loan.getId())
+                .field(loan.getBookIsbn())
+                .field(loan.getBookTitle())
+                .field(loan.getMemberName())
+                .plain(loan.getLoanDate())
+                .plain(loan.getDueDate())
+                .field(daysOverdue)
+                .money(loan.getFineAmount())
+                .field(loan.getStatus())
+                .endRow();
+    }
+
+    //Write a CSV data row for a single member
+    private static void appendMemberRow(CsvStreamWriter writer, Member member) throws IOException {
+        writer.field(member.getIdNumber())
+                .field(member.getFirstName())
+                .field(member.getLastName())
+                .field(member.getEmail())
+                .field(member.getPhone())
+                .plain(member.getMembershipDate())
+                .field(member.getActive() ? "Active" : "Inactive")
+                .plain(member.getCreatedAt())
+                .endRow();
+    }
 
-        return field;
+    //Write a CSV data row for any loan (active or returned)
+    private static void appendAllLoanRow(CsvStreamWriter writer, Loan loan, long today) throws IOException {
+        long daysOverdue = today - loan.getDueDate().toEpochDay();
+
+        writer.field(loan.getId())
+                .field(loan.getBookIsbn())
+                .field(loan.getBookTitle())
+                .field(loan.getMemberName())
+                .plain(loan.getLoanDate())
+                .plain(loan.getDueDate())
+                .field(loan.getReturnDate() != null ? loan.getReturnDate().toString() : "Not Returned")
+                .field(daysOverdue)
+                .money(loan.getFineAmount())
+                .field(loan.getStatus())
+                .plain(loan.getCreatedAt())
+                .endRow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package util;
+
+import domain.Book;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads CSV files in the same format CSVExportUtil writes them (the inverse of the books export)
+public class CSVImportUtil {
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+
+    // Reads one CSV record, which may span several lines when a quoted field contains line breaks
+    // Returns null at the end of the file
+    public static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+
+        // An odd number of quotes means a quoted field is still open: keep reading lines
+        StringBuilder record = null;
+        int quotes = countQuotes(line);
+        while (quotes % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            if (record == null) {
+                record = new StringBuilder(line);
+            }
+            record.append('\n').append(next);
+            quotes += countQuotes(next);
+        }
+        return record != null ? record.toString() : line;
+    }
+
+    // Splits one CSV record into its fields, removing quotes and un-doubling escaped quotes
+    public static List<String> parseRecord(String record) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (inQuotes) {
+                if (c == QUOTE) {
+                    // A doubled quote inside a quoted field is a literal quote
+                    if (i + 1 < record.length() && record.charAt(i + 1) == QUOTE) {
+                        field.append(QUOTE);
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == QUOTE) {
+                inQuotes = true;
+            } else if (c == DELIMITER) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Builds a Book from the columns of a books export:
+    // ISBN, Title, Author, Year Published, Genre, Total Copies, Available Copies, Created At
+    // Throws IllegalArgumentException when the row cannot be read
+    public static Book parseBookRow(List<String> fields) {
+        if (fields.size() < 6) {
+            throw new IllegalArgumentException("Expected at least 6 columns but found " + fields.size());
+        }
+
+        Integer year = parseOptionalInt(fields.get(3), "Year Published");
+        Integer totalCopies = parseOptionalInt(fields.get(5), "Total Copies");
+        Book book = new Book(emptyToNull(fields.get(0)), emptyToNull(fields.get(1)), emptyToNull(fields.get(2)),
+                year, emptyToNull(fields.get(4)), totalCopies);
+
+        // Available copies are optional; when missing every copy is considered available
+        if (fields.size() > 6 && !fields.get(6).isBlank()) {
+            book.setAvailableCopies(parseOptionalInt(fields.get(6), "Available Copies"));
+        }
+        return book;
+    }
+
+    // Writes text as a single CSV field, quoting it when needed (same rules as the exports)
+    public static String escapeField(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(DELIMITER) >= 0 || field.indexOf(QUOTE) >= 0 || field.indexOf('\n') >= 0) {
+            return QUOTE + field.replace("\"", "\"\"") + QUOTE;
+        }
+        return field;
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == QUOTE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Integer parseOptionalInt(String value, String column) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in column " + column + ": " + value);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
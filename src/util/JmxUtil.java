@@ -0,0 +1,31 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Publishes monitoring objects so they can be read with jconsole, VisualVM or any JMX client
+public class JmxUtil {
+    private static final Logger logger = Logger.getLogger(JmxUtil.class.getName());
+
+    // Every LibroNova bean lives under this JMX domain
+    public static final String DOMAIN = "libronova";
+
+    // Registers a bean under "libronova:<properties>", replacing any bean already registered with that name
+    // Monitoring must never break the application, so failures are only logged
+    public static void register(String properties, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(bean, name);
+        } catch (JMException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not register JMX bean " + properties, e);
+        }
+    }
+}
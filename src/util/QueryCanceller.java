@@ -0,0 +1,57 @@
+package util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Lets another thread stop a running JDBC query, e.g. a search the user has already typed past
+// The DAO attaches its statement right before executing it and detaches it before closing it; both, and
+// the Statement.cancel call, hold the same lock, so a cancel can never reach a statement (and with MySQL,
+// a pooled connection) that has moved on to other work
+// Statement.cancel is itself a round-trip to the server (MySQL opens a second connection to send KILL QUERY),
+// so cancel only marks the handle and sends it from a background thread: the event thread never waits on it
+public class QueryCanceller {
+    private Statement statement;
+    private boolean cancelled;
+
+    // Registers the statement about to run; a query cancelled before it even started is not run at all
+    public synchronized void attach(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled before it started");
+        }
+        this.statement = statement;
+    }
+
+    // Forgets the statement (call before closing it)
+    public synchronized void detach() {
+        statement = null;
+    }
+
+    // Stops the query if it is running and marks the handle so a later attach stops it too
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (statement == null) {
+                return;
+            }
+        }
+        AsyncExecutor.run(this::cancelStatement);
+    }
+
+    // Runs in the background; the statement may have been detached in the meantime
+    private synchronized void cancelStatement() {
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // The query has finished or the driver cannot cancel; its result is ignored either way
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,11 @@
+package util;
+
+import java.util.function.Consumer;
+
+// Anything that can push rows one by one to a consumer: a DAO cursor, a service method or a plain List
+// Lets the CSV exports read from the database without holding every row in memory
+@FunctionalInterface
+public interface RowSource<T> {
+    // Hands every row, in order, to the given consumer
+    void forEach(Consumer<T> consumer);
+}
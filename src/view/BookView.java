@@ -3,8 +3,12 @@ package view;
 import domain.Book;
 import javax.swing.JOptionPane;
 import java.util.List;
+import java.util.function.Function;
 
 public class BookView {
+    // Rows fetched per query and pages kept in memory by the book table
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int TABLE_CACHED_PAGES = 8;
 
     // Method to display form for adding a new book
     public Book showAddBookForm() {
@@ -50,14 +54,19 @@ public class BookView {
         return JOptionPane.showInputDialog("Enter the book ISBN:");
     }
 
-    // Method to ask user for title search input
-    public String askForTitle() {
-        return JOptionPane.showInputDialog("Enter the title to search:");
+    // Method to show the search-as-you-type window over one field of the catalog (title or author)
+    public void showIncrementalSearch(String fieldName, Function<Book, String> field,
+                                      IncrementalSearch.Backend<Book> backend, int maxResults, int debounceMillis) {
+        String[] columns = {"ISBN", "Title", "Author", "Genre", "Year", "Available", "Total"};
+        IncrementalSearchDialog.show("Search Books by " + fieldName, fieldName + ":", columns, (Book book) -> new Object[]{
+                book.getIsbn(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                book.getYearPublished(), book.getAvailableCopies(), book.getTotalCopies()
+        }, field, backend, maxResults, debounceMillis);
     }
 
-    // Method to ask user for author search input
-    public String askForAuthor() {
-        return JOptionPane.showInputDialog("Enter the author to search:");
+    // Method to ask user for the CSV file to import
+    public String askForImportFile() {
+        return JOptionPane.showInputDialog("Enter the path of the books CSV file to import:");
     }
 
     // Method to display list of books in a dialog
@@ -86,6 +95,25 @@ public class BookView {
         JOptionPane.showMessageDialog(null, sb.toString());
     }
 
+    // Builds a table model over the whole catalog that loads pages on demand (reads the row count, so call it
+    // off the event thread)
+    public PagedTableModel<Book> createBookTableModel(PagedTableModel.PageSource<Book> source) {
+        String[] columns = {"ISBN", "Title", "Author", "Genre", "Year", "Available", "Total"};
+        return new PagedTableModel<>(columns, book -> new Object[]{
+                book.getIsbn(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                book.getYearPublished(), book.getAvailableCopies(), book.getTotalCopies()
+        }, source, TABLE_PAGE_SIZE, TABLE_CACHED_PAGES);
+    }
+
+    // Method to display the catalog in a scrollable table
+    public void displayBookTable(PagedTableModel<Book> model) {
+        if (model.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(null, "No books found.");
+            return;
+        }
+        PagedTableDialog.show("Books", model);
+    }
+
     // Method to confirm book deletion with user
     public boolean confirmDelete(Book book) {
         int response = JOptionPane.showConfirmDialog(null,
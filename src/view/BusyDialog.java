@@ -0,0 +1,148 @@
+package view;
+
+import exceptions.BusinessException;
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+// Waits for background work while showing a "please wait" window with a Cancel button
+// The work itself runs on a virtual thread (see AsyncExecutor); the window appears only if the work takes
+// longer than a moment, is updated on the Swing event thread, and the result (or error) is handed back to
+// the thread that asked for it, which then shows it with the usual JOptionPane dialogs
+public class BusyDialog {
+    // Quick operations finish before the window would even be noticed
+    private static final long SHOW_AFTER_MILLIS = 300;
+
+    private BusyDialog() {}
+
+    // Waits for a read-only task and returns its result
+    // Business errors come back as they were thrown; cancelling turns into BusinessException("Operation cancelled")
+    public static <T> T await(String message, CompletableFuture<T> task) throws BusinessException {
+        return await(message, task, true);
+    }
+
+    // Waits for a task that changes the database; the window has no Cancel button
+    // Interrupting a transaction does not stop it from committing, so "cancelled" would be a guess - and
+    // a wrong guess invites the librarian to do the same checkout or return a second time
+    public static <T> T awaitWrite(String message, CompletableFuture<T> task) throws BusinessException {
+        return await(message, task, false);
+    }
+
+    private static <T> T await(String message, CompletableFuture<T> task, boolean cancellable) throws BusinessException {
+        try {
+            return task.get(SHOW_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slow: show the window below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!cancellable) {
+                throw new BusinessException("Stopped waiting before the operation finished; it may still have been saved, please check before trying again");
+            }
+            task.cancel(true);
+            throw new BusinessException("Operation cancelled");
+        } catch (CancellationException e) {
+            throw new BusinessException("Operation cancelled");
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        JDialog[] dialog = new JDialog[1];
+        Runnable show = () -> {
+            dialog[0] = createDialog(message, task, cancellable);
+            // Closes itself when the work is done, whichever way it ends
+            task.whenComplete((value, error) -> SwingUtilities.invokeLater(dialog[0]::dispose));
+            // Modal: on the event thread this keeps repainting the application until the dialog closes
+            dialog[0].setVisible(true);
+        };
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            show.run();
+        } else {
+            // The menu loop runs on the main thread: show the window on the event thread and block here
+            SwingUtilities.invokeLater(show);
+        }
+
+        try {
+            return task.join();
+        } catch (CancellationException e) {
+            throw new BusinessException("Operation cancelled");
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            closeFromAnyThread(dialog);
+        }
+    }
+
+    private static JDialog createDialog(String message, CompletableFuture<?> task, boolean cancellable) {
+        JDialog dialog = new JDialog((Frame) null, "Please wait", true);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+
+        JProgressBar progress = new JProgressBar();
+        progress.setIndeterminate(true);
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        panel.add(new JLabel(message), BorderLayout.NORTH);
+        panel.add(progress, BorderLayout.CENTER);
+        if (cancellable) {
+            JButton cancel = new JButton("Cancel");
+            cancel.addActionListener(event -> task.cancel(true));
+            panel.add(cancel, BorderLayout.SOUTH);
+        }
+        dialog.setContentPane(panel);
+        dialog.pack();
+        dialog.setLocationRelativeTo(null);
+        return dialog;
+    }
+
+    // The dialog may not have been shown yet when the task completes
+    private static void closeFromAnyThread(JDialog[] dialog) {
+        Runnable close = () -> {
+            if (dialog[0] != null) {
+                dialog[0].dispose();
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            close.run();
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(close);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                // Nothing to do: the window is gone either way
+            }
+        }
+    }
+
+    // Gives the caller the exception the service threw
+    private static BusinessException unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof BusinessException businessException) {
+            return businessException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error fatal) {
+            throw fatal;
+        }
+        return new BusinessException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,152 @@
+package view;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import util.AsyncExecutor;
+import util.QueryCanceller;
+
+// Search-as-you-type behind a text field
+// Keystrokes are debounced (the query starts once typing pauses), the query runs on a background thread,
+// and a query the user has typed past is cancelled in the database rather than left to finish
+// When the new text contains the text of the last complete answer, that answer already holds every match,
+// so it is narrowed in memory and the database is not asked at all
+// Everything here except the query itself runs on the Swing event thread
+public class IncrementalSearch<T> {
+    private static final Logger logger = Logger.getLogger(IncrementalSearch.class.getName());
+    // Combining marks left by NFD decomposition (the accents of "é", "ñ", ...)
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // The query behind the search (typically a service method); must honour the canceller
+    @FunctionalInterface
+    public interface Backend<T> {
+        List<T> search(String text, int limit, QueryCanceller canceller) throws Exception;
+    }
+
+    private final Backend<T> backend;
+    private final Function<T, String> searchedText;
+    private final int maxResults;
+    private final Consumer<List<T>> onResults;
+    private final Consumer<String> onStatus;
+    private final Timer debounce;
+
+    private String pendingText = "";
+    // Bumped for every search started; an answer from an older one is dropped
+    private int generation;
+    private CompletableFuture<List<T>> inFlight;
+    private QueryCanceller inFlightCanceller;
+    // Last answer from the database that was not cut off at maxResults, and the text it answered
+    private String completeText;
+    private List<T> completeResults;
+
+    // searchedText gives the field the query is matched against (e.g. the title), for narrowing in memory
+    // onResults and onStatus are called on the event thread
+    public IncrementalSearch(Backend<T> backend, Function<T, String> searchedText, int maxResults,
+                             int debounceMillis, Consumer<List<T>> onResults, Consumer<String> onStatus) {
+        this.backend = backend;
+        this.searchedText = searchedText;
+        this.maxResults = Math.max(1, maxResults);
+        this.onResults = onResults;
+        this.onStatus = onStatus;
+        this.debounce = new Timer(Math.max(0, debounceMillis), e -> search());
+        this.debounce.setRepeats(false);
+    }
+
+    // Called on every edit of the search field; the search runs once typing pauses
+    public void textChanged(String text) {
+        pendingText = text == null ? "" : text.trim();
+        debounce.restart();
+    }
+
+    // Stops the timer and any running query (call when the window closes)
+    public void close() {
+        debounce.stop();
+        generation++;
+        cancelInFlight();
+    }
+
+    private void search() {
+        String text = pendingText;
+        int current = ++generation;
+        // Whatever is still running answers an older text
+        cancelInFlight();
+
+        if (text.isEmpty()) {
+            onResults.accept(List.of());
+            onStatus.accept("");
+            return;
+        }
+
+        if (completeText != null && contains(text, completeText)) {
+            // Every match of the longer text is a match of the shorter one: narrow without a query
+            List<T> narrowed = new ArrayList<>();
+            for (T row : completeResults) {
+                if (contains(searchedText.apply(row), text)) {
+                    narrowed.add(row);
+                }
+            }
+            onResults.accept(narrowed);
+            onStatus.accept(narrowed.size() + " matches");
+            return;
+        }
+
+        QueryCanceller canceller = new QueryCanceller();
+        inFlightCanceller = canceller;
+        inFlight = AsyncExecutor.supply(() -> backend.search(text, maxResults, canceller));
+        onStatus.accept("Searching...");
+        inFlight.whenComplete((rows, error) -> SwingUtilities.invokeLater(() -> {
+            if (current != generation || canceller.isCancelled()) {
+                // Superseded while running: a cancelled query answers with no rows, which is not an answer
+                return;
+            }
+            inFlight = null;
+            inFlightCanceller = null;
+            if (error != null) {
+                // Timed out or failed: show it, and keep the last complete answer as it was
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                logger.log(Level.WARNING, "Search failed: " + text, cause);
+                onStatus.accept("Search failed: " + cause.getMessage());
+                return;
+            }
+            if (rows.size() < maxResults) {
+                // Complete answer: longer texts can be narrowed from it
+                completeText = text;
+                completeResults = rows;
+                onStatus.accept(rows.size() + " matches");
+            } else {
+                onStatus.accept("First " + maxResults + " matches - keep typing to narrow");
+            }
+            onResults.accept(rows);
+        }));
+    }
+
+    private void cancelInFlight() {
+        if (inFlightCanceller != null) {
+            inFlightCanceller.cancel();
+            inFlight.cancel(true);
+            inFlightCanceller = null;
+            inFlight = null;
+        }
+    }
+
+    // Same rule as the database's LIKE '%text%' under its default accent- and case-insensitive collation
+    // (utf8mb4_0900_ai_ci): "jose" matches "José", so narrowing never drops a row the query would return
+    private static boolean contains(String value, String text) {
+        return value != null && fold(value).contains(fold(text));
+    }
+
+    // Lower case without accents, the way BookSearchIndex compares words
+    private static String fold(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,106 @@
+package view;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Frame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.function.Function;
+import javax.swing.BorderFactory;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+
+// Window with a search field whose results table updates while the user types (see IncrementalSearch)
+public class IncrementalSearchDialog {
+    private IncrementalSearchDialog() {}
+
+    // Shows the window and returns when the user closes it
+    public static <T> void show(String title, String prompt, String[] columnNames, Function<T, Object[]> toCells,
+                                Function<T, String> searchedText, IncrementalSearch.Backend<T> backend,
+                                int maxResults, int debounceMillis) {
+        Runnable show = () -> {
+            JDialog dialog = new JDialog((Frame) null, title, true);
+            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+            DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+            JTable table = new JTable(model);
+            table.setRowHeight(20);
+            table.setFillsViewportHeight(true);
+
+            JLabel status = new JLabel(" ");
+            status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+            IncrementalSearch<T> search = new IncrementalSearch<>(backend, searchedText, maxResults, debounceMillis,
+                    (List<T> rows) -> {
+                        model.setRowCount(0);
+                        for (T row : rows) {
+                            model.addRow(toCells.apply(row));
+                        }
+                    },
+                    text -> status.setText(text.isEmpty() ? " " : text));
+
+            JTextField field = new JTextField();
+            field.getDocument().addDocumentListener(new DocumentListener() {
+                public void insertUpdate(DocumentEvent e) {
+                    search.textChanged(field.getText());
+                }
+
+                public void removeUpdate(DocumentEvent e) {
+                    search.textChanged(field.getText());
+                }
+
+                public void changedUpdate(DocumentEvent e) {
+                    // Attribute changes only, the text is the same
+                }
+            });
+
+            JPanel top = new JPanel(new BorderLayout(8, 0));
+            top.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+            top.add(new JLabel(prompt), BorderLayout.WEST);
+            top.add(field, BorderLayout.CENTER);
+
+            // Stop the debounce timer and any running query once the window is gone
+            dialog.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    search.close();
+                }
+            });
+
+            dialog.getContentPane().add(top, BorderLayout.NORTH);
+            dialog.getContentPane().add(new JScrollPane(table), BorderLayout.CENTER);
+            dialog.getContentPane().add(status, BorderLayout.SOUTH);
+            dialog.setSize(new Dimension(900, 500));
+            dialog.setLocationRelativeTo(null);
+            // Modal: returns once the window is closed
+            dialog.setVisible(true);
+        };
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            show.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(show);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not show the search window", e.getCause());
+        }
+    }
+}
@@ -5,6 +5,9 @@ import javax.swing.JOptionPane;
 import java.util.List;
 
 public class LoanView {
+    // Rows fetched per query and pages kept in memory by the loan table
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int TABLE_CACHED_PAGES = 8;
 
     // Method to ask user for book ID input
     public Integer askForBookId() {
@@ -52,6 +55,26 @@ public class LoanView {
         JOptionPane.showMessageDialog(null, sb.toString());
     }
 
+    // Builds a table model over every loan that loads pages on demand (reads the row count, so call it
+    // off the event thread)
+    public PagedTableModel<Loan> createLoanTableModel(PagedTableModel.PageSource<Loan> source) {
+        String[] columns = {"Loan ID", "Book", "ISBN", "Member", "Loan Date", "Due Date", "Return Date", "Status", "Fine"};
+        return new PagedTableModel<>(columns, loan -> new Object[]{
+                loan.getId(), loan.getBookTitle(), loan.getBookIsbn(), loan.getMemberName(), loan.getLoanDate(),
+                loan.getDueDate(), loan.getReturnDate() != null ? loan.getReturnDate() : "Pending",
+                loan.getStatus(), loan.getFineAmount()
+        }, source, TABLE_PAGE_SIZE, TABLE_CACHED_PAGES);
+    }
+
+    // Method to display loans in a scrollable table
+    public void displayLoanTable(PagedTableModel<Loan> model) {
+        if (model.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(null, "No loans found.");
+            return;
+        }
+        PagedTableDialog.show("Loans", model);
+    }
+
     // Method to show success message dialog
     public void showSuccessMessage(String message) {
         JOptionPane.showMessageDialog(null, message, "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -5,6 +5,9 @@ import javax.swing.JOptionPane;
 import java.util.List;
 
 public class MemberView {
+    // Rows fetched per query and pages kept in memory by the member table
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int TABLE_CACHED_PAGES = 8;
 
     // Method to display form for adding a new member
     public Member showAddMemberForm() {
@@ -68,6 +71,25 @@ public class MemberView {
         JOptionPane.showMessageDialog(null, sb.toString());
     }
 
+    // Builds a table model over every member that loads pages on demand (reads the row count, so call it
+    // off the event thread)
+    public PagedTableModel<Member> createMemberTableModel(PagedTableModel.PageSource<Member> source) {
+        String[] columns = {"ID", "Name", "Email", "Phone", "Active", "Membership Date"};
+        return new PagedTableModel<>(columns, member -> new Object[]{
+                member.getIdNumber(), member.getFullName(), member.getEmail(), member.getPhone(),
+                Boolean.TRUE.equals(member.getActive()) ? "Yes" : "No", member.getMembershipDate()
+        }, source, TABLE_PAGE_SIZE, TABLE_CACHED_PAGES);
+    }
+
+    // Method to display members in a scrollable table
+    public void displayMemberTable(PagedTableModel<Member> model) {
+        if (model.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(null, "No members found.");
+            return;
+        }
+        PagedTableDialog.show("Members", model);
+    }
+
     // Method to confirm member deactivation with user
     public boolean confirmDeactivation(Member member) {
         int response = JOptionPane.showConfirmDialog(null,
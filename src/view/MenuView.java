@@ -73,6 +73,7 @@ public class MenuView {
                 "Search by Author",
                 "Update Book",
                 "Delete Book",
+                "Import Books (CSV)",
                 "Back"
         };
 
@@ -106,6 +107,9 @@ public class MenuView {
             case 5:
                 bookController.deleteBook(); // Remove a book from the system
                 break;
+            case 6:
+                bookController.importBooksFromCSV(); // Bulk-load a catalog from a CSV file
+                break;
             default:
                 break; // Return to main menu
         }
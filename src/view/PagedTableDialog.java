@@ -0,0 +1,53 @@
+package view;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Frame;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.BorderFactory;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+
+// Window showing a PagedTableModel in a scrollable JTable (replaces the one-big-string message dialogs)
+public class PagedTableDialog {
+    private PagedTableDialog() {}
+
+    // Shows the table and returns when the user closes the window
+    public static void show(String title, PagedTableModel<?> model) {
+        Runnable show = () -> {
+            JDialog dialog = new JDialog((Frame) null, title, true);
+            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+            JTable table = new JTable(model);
+            // Fixed-height rows let the table work out what is visible without measuring every row
+            table.setRowHeight(20);
+            table.setFillsViewportHeight(true);
+            table.setAutoCreateRowSorter(false);
+
+            JLabel summary = new JLabel(model.getRowCount() + " rows");
+            summary.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+            dialog.getContentPane().add(new JScrollPane(table), BorderLayout.CENTER);
+            dialog.getContentPane().add(summary, BorderLayout.SOUTH);
+            dialog.setSize(new Dimension(900, 500));
+            dialog.setLocationRelativeTo(null);
+            // Modal: returns once the window is closed
+            dialog.setVisible(true);
+        };
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            show.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(show);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not show the table", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package view;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import util.AsyncExecutor;
+
+// Table model that loads rows from the database one page at a time, only when the table asks for them
+// The row count comes from a COUNT query, so the scroll bar is right from the start; a page is fetched in
+// the background the first time one of its rows is painted and kept in a small LRU, so memory and
+// rendering cost follow the viewport, not the size of the table
+// Pages are fetched with the keyset cursor of the page before (the last row of it) when it is known,
+// and with OFFSET when the user jumps far ahead
+public class PagedTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(PagedTableModel.class.getName());
+    // Shown in the cells of a page that is still loading
+    private static final String LOADING = "...";
+
+    // Where the rows come from (typically a service's page methods)
+    public interface PageSource<T> {
+        // Number of rows
+        int count();
+        // The rows right after the given one in table order (null = first page)
+        List<T> fetchAfter(T lastRow, int limit);
+        // The rows at a position in table order
+        List<T> fetchAt(int offset, int limit);
+    }
+
+    // The model lives only as long as its table; the rows and the source are never serialized
+    private final transient String[] columnNames;
+    private final transient Function<T, Object[]> toCells;
+    private final transient PageSource<T> source;
+    private final int pageSize;
+    private final int rowCount;
+
+    // Accessed on the Swing event thread only; pages hold the cells already converted for display
+    // A page's cursor (its last row) is kept only while the page itself is cached, so both stay bounded
+    private final transient Map<Integer, Object[][]> pages;
+    private final transient Map<Integer, T> lastRowOfPage = new HashMap<>();
+    private final transient Set<Integer> loading = new HashSet<>();
+
+    // The row count is read here, so build the model off the event thread (see BusyDialog)
+    public PagedTableModel(String[] columnNames, Function<T, Object[]> toCells, PageSource<T> source,
+                           int pageSize, int cachedPages) {
+        this.columnNames = columnNames;
+        this.toCells = toCells;
+        this.source = source;
+        this.pageSize = Math.max(1, pageSize);
+        this.rowCount = source.count();
+        int maxPages = Math.max(2, cachedPages);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                if (size() > maxPages) {
+                    lastRowOfPage.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / pageSize;
+        Object[][] rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return LOADING;
+        }
+        int offset = rowIndex % pageSize;
+        // Rows deleted since the count was taken leave the end of the table empty
+        return offset < rows.length ? rows[offset][columnIndex] : "";
+    }
+
+    // Number of pages currently held in memory
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    // Starts loading a page in the background (once), then repaints its rows
+    private void requestPage(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        T cursor = page == 0 ? null : lastRowOfPage.get(page - 1);
+        boolean useCursor = page == 0 || cursor != null;
+        CompletableFuture<List<T>> fetch = AsyncExecutor.supply(() -> useCursor
+                ? source.fetchAfter(cursor, pageSize)
+                : source.fetchAt(page * pageSize, pageSize));
+
+        fetch.whenComplete((rows, error) -> SwingUtilities.invokeLater(() -> {
+            loading.remove(page);
+            if (error != null) {
+                // Show the page empty rather than retrying on every repaint
+                logger.log(Level.WARNING, "Could not load table page " + page, error);
+                pages.put(page, new Object[0][]);
+            } else {
+                Object[][] cells = new Object[rows.size()][];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = toCells.apply(rows.get(i));
+                }
+                pages.put(page, cells);
+                if (!rows.isEmpty()) {
+                    lastRowOfPage.put(page, rows.get(rows.size() - 1));
+                }
+            }
+            int first = page * pageSize;
+            int last = Math.min(rowCount, first + pageSize) - 1;
+            if (last >= first) {
+                fireTableRowsUpdated(first, last);
+            }
+        }));
+    }
+}
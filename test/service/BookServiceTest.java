@@ -1,9 +1,19 @@
 package service;
 
+import app.ApplicationContext;
+import dao.BookDAO;
+import dao.BookDAOJDBC;
+import dao.CachingBookDAO;
 import domain.Book;
+import domain.ImportResult;
 import exceptions.BusinessException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BookServiceTest {
@@ -12,7 +22,7 @@ public class BookServiceTest {
     // This runs before each test method to set up a fresh BookService instance
     @BeforeEach
     void setUp() {
-        bookService = new BookService();
+        bookService = new ApplicationContext().getBookService();
     }
 
     // Test that a valid book can be added without throwing any exceptions
@@ -78,6 +88,17 @@ public class BookServiceTest {
         // Note: The list might be empty if no books in database, but should not be null
     }
 
+    // Test that the first page of books respects the requested page size
+    @Test
+    void testGetBooksPage_FirstPage_RespectsPageSize() {
+        // Act - request the first page (no previous key) with room for 5 books
+        var books = bookService.getBooksPage(null, null, 5);
+
+        // Assert - verify a list is returned and it is not bigger than the page
+        assertNotNull(books);
+        assertTrue(books.size() <= 5);
+    }
+
     // Test searching books by title returns a valid list
     @Test
     void testSearchBooksByTitle_ValidTitle_ReturnsList() {
@@ -99,6 +120,45 @@ public class BookServiceTest {
         assertNotNull(books);
     }
 
+    // Test that an import batch failing part-way through (a duplicate the pre-check missed) stores none of its books
+    @Test
+    void testImportBooks_DuplicateMidBatch_StoresNothingFromBatch() throws Exception {
+        // Arrange - a book already in the catalog, and a DAO whose duplicate check finds nothing,
+        // as if another desk had added the book right after the check
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+        Book existing = new Book("DUP" + suffix, "Existing Book", "Test Author", 2024, "Fiction", 1);
+        bookService.addBook(existing);
+        BookDAO realDAO = new BookDAOJDBC();
+        BookDAO blindDAO = (BookDAO) Proxy.newProxyInstance(BookDAO.class.getClassLoader(), new Class<?>[] {BookDAO.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findExistingIsbns")) {
+                        return Set.of();
+                    }
+                    try {
+                        return method.invoke(realDAO, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        BookService importer = new BookService(new CachingBookDAO(blindDAO, 100));
+
+        Path csv = Files.createTempFile("import", ".csv");
+        Path rejects = Files.createTempFile("import-rejects", ".csv");
+        Files.writeString(csv, "ISBN,Title,Author,Year Published,Genre,Total Copies,Available Copies\n"
+                + "NEW" + suffix + ",First Book,Test Author,2024,Fiction,1,1\n"
+                + "DUP" + suffix + ",Existing Book,Test Author,2024,Fiction,1,1\n"
+                + "NXT" + suffix + ",Last Book,Test Author,2024,Fiction,1,1\n");
+
+        // Act - all three rows go to the database in one batch, which fails on the second
+        ImportResult result = importer.importBooks(csv.toString(), rejects.toString());
+
+        // Assert - the batch is all or nothing: every row is rejected and none was committed
+        assertEquals(0L, result.getRowsImported());
+        assertEquals(3L, result.getRowsRejected());
+        assertTrue(bookService.getBookByIsbn("NEW" + suffix).isEmpty());
+        assertTrue(bookService.getBookByIsbn("NXT" + suffix).isEmpty());
+    }
+
     // Test that checking availability for non-existent book returns false
     @Test
     void testIsBookAvailableForLoan_NonExistentBook_ReturnsFalse() {
@@ -0,0 +1,166 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// These tests build the store from synthetic rows, so they run without a database
+public class LoanColumnStoreTest {
+    // Sizes around the segment boundaries (segments are at least 32768 rows) plus an uneven multi-segment one
+    private static final int[] SIZES = {0, 1, 32767, 32768, 32769, 100_003};
+    private static final String[] TITLES = {"Dune", "Emma", "Ulysses", "Walden"};
+
+    // Test that filter returns exactly the matching rows, in ascending order, whatever the segment split
+    @Test
+    void testFilter_SegmentBoundaries_MatchesRowByRowScan() {
+        for (int size : SIZES) {
+            // Arrange
+            LoanColumnStore store = buildStore(size);
+
+            // Act - keep the overdue loans of odd members
+            int[] rows = store.filter(row -> store.status(row) == LoanColumnStore.OVERDUE && store.memberId(row) % 2 == 1);
+
+            // Assert - same rows as checking every row one by one
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (statusOf(i) == LoanColumnStore.OVERDUE && memberIdOf(i) % 2 == 1) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(size, store.size());
+            assertEquals(expected.size(), rows.length, "rows matched with " + size + " loans");
+            for (int i = 0; i < rows.length; i++) {
+                assertEquals(expected.get(i).intValue(), rows[i], "row " + i + " with " + size + " loans");
+            }
+        }
+    }
+
+    // Test that countBy counts every row exactly once, per status
+    @Test
+    void testCountBy_Status_CountsEveryRowOnce() {
+        for (int size : SIZES) {
+            // Arrange
+            LoanColumnStore store = buildStore(size);
+            long[] expected = new long[3];
+            for (int i = 0; i < size; i++) {
+                expected[statusOf(i)]++;
+            }
+
+            // Act
+            long[] counts = store.countBy(row -> true, store::status, 3);
+
+            // Assert
+            for (int status = 0; status < 3; status++) {
+                assertEquals(expected[status], counts[status], LoanColumnStore.statusName((byte) status) + " with " + size + " loans");
+            }
+            assertEquals(size, store.count(row -> true));
+        }
+    }
+
+    // Test that sumBy adds up the fines per title over the matching rows only
+    @Test
+    void testSumBy_FinesPerTitle_MatchesRowByRowSum() {
+        for (int size : SIZES) {
+            // Arrange
+            LoanColumnStore store = buildStore(size);
+            long[] expected = new long[TITLES.length];
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                if (statusOf(i) != LoanColumnStore.RETURNED) {
+                    expected[titleIndexOf(i)] += fineOf(i);
+                    total += fineOf(i);
+                }
+            }
+
+            // Act - fines of the loans still out, grouped by title code
+            long[] sums = store.sumBy(row -> store.status(row) != LoanColumnStore.RETURNED, store::titleCode,
+                    store.titleCount(), store::fineCents);
+
+            // Assert - title codes follow the order titles were first seen, so compare by name
+            assertEquals(Math.min(size, TITLES.length), store.titleCount());
+            for (int code = 0; code < store.titleCount(); code++) {
+                int title = indexOfTitle(store.title(code));
+                assertEquals(expected[title], sums[code], store.title(code) + " with " + size + " loans");
+            }
+            assertEquals(total, store.sum(row -> store.status(row) != LoanColumnStore.RETURNED, store::fineCents));
+        }
+    }
+
+    // Test that topTitles lists the most borrowed titles first, with their loan counts
+    @Test
+    void testTopTitles_MostBorrowedFirst() {
+        // Arrange - Dune 8 of every 15 loans, Emma 4, Ulysses 2, Walden 1
+        LoanColumnStore store = buildStore(100_003);
+        long[] expected = new long[TITLES.length];
+        for (int i = 0; i < store.size(); i++) {
+            expected[titleIndexOf(i)]++;
+        }
+
+        // Act
+        Map<String, Long> top = store.topTitles(3);
+
+        // Assert
+        Map<String, Long> expectedTop = new LinkedHashMap<>();
+        for (int title = 0; title < 3; title++) {
+            expectedTop.put(TITLES[title], expected[title]);
+        }
+        assertEquals(new ArrayList<>(expectedTop.keySet()), new ArrayList<>(top.keySet()));
+        assertEquals(expectedTop, top);
+    }
+
+    // Test that an empty snapshot answers every operator with nothing
+    @Test
+    void testOperators_EmptyStore_ReturnEmptyResults() {
+        // Arrange
+        LoanColumnStore store = buildStore(0);
+
+        // Act & Assert
+        assertEquals(0, store.filter(row -> true).length);
+        assertEquals(0, store.count(row -> true));
+        assertEquals(0, store.countBy(row -> true, store::status, 3)[LoanColumnStore.ACTIVE]);
+        assertTrue(store.topTitles(5).isEmpty());
+    }
+
+    // Builds a store of size synthetic loans; each column is a simple function of the row number
+    private static LoanColumnStore buildStore(int size) {
+        return LoanColumnStore.build(consumer -> {
+            for (int i = 0; i < size; i++) {
+                int loanDay = 19_000 + i % 365;
+                byte status = statusOf(i);
+                consumer.accept(i + 1, i % 97 + 1, memberIdOf(i), loanDay, loanDay + 14,
+                        status == LoanColumnStore.RETURNED ? loanDay + 7 : LoanColumnStore.NOT_RETURNED,
+                        LoanColumnStore.statusName(status), fineOf(i), TITLES[titleIndexOf(i)]);
+            }
+        });
+    }
+
+    private static byte statusOf(int row) {
+        return (byte) (row % 3);
+    }
+
+    private static int memberIdOf(int row) {
+        return row % 31 + 1;
+    }
+
+    private static long fineOf(int row) {
+        return row % 3 == LoanColumnStore.OVERDUE ? row % 500 : 0;
+    }
+
+    // 8 of every 15 rows are the first title, 4 the second, 2 the third and 1 the fourth
+    private static int titleIndexOf(int row) {
+        int slot = row % 15;
+        return slot < 8 ? 0 : slot < 12 ? 1 : slot < 14 ? 2 : 3;
+    }
+
+    private static int indexOfTitle(String title) {
+        for (int i = 0; i < TITLES.length; i++) {
+            if (TITLES[i].equals(title)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(title);
+    }
+}
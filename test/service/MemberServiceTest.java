@@ -1,5 +1,6 @@
 package service;
 
+import app.ApplicationContext;
 import domain.Member;
 import exceptions.BusinessException;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +13,7 @@ public class MemberServiceTest {
     // Set up a fresh MemberService before each test to ensure test isolation
     @BeforeEach
     void setUp() {
-        memberService = new MemberService();
+        memberService = new ApplicationContext().getMemberService();
     }
 
     // Test that a valid member can be added without throwing exceptions
@@ -91,6 +92,17 @@ public class MemberServiceTest {
         assertNotNull(members);
     }
 
+    // Test that the first page of members respects the requested page size
+    @Test
+    void testGetMembersPage_FirstPage_RespectsPageSize() {
+        // Act - request the first page (no previous key) with room for 5 members
+        var members = memberService.getMembersPage(null, null, null, 5);
+
+        // Assert - verify a list is returned and it is not bigger than the page
+        assertNotNull(members);
+        assertTrue(members.size() <= 5);
+    }
+
     // Test that getActiveMembers returns a list of active members only
     @Test
     void testGetActiveMembers_ReturnsList() {
@@ -0,0 +1,107 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The cache is plain memory, so these tests run without a database
+public class MemberStatusCacheTest {
+
+    // Test that a stored status is answered from memory and counted as a hit
+    @Test
+    void testGet_AfterPut_ReturnsStatus() {
+        // Arrange
+        MemberStatusCache cache = new MemberStatusCache(100, 60_000);
+        cache.put(7, false, cache.stamp());
+
+        // Act
+        Boolean status = cache.get(7);
+
+        // Assert
+        assertEquals(Boolean.FALSE, status);
+        assertNull(cache.get(8));
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+    // Test that an update or deactivation makes the next check go to the database
+    @Test
+    void testInvalidate_ForgetsMember() {
+        // Arrange
+        MemberStatusCache cache = new MemberStatusCache(100, 60_000);
+        cache.put(7, true, cache.stamp());
+
+        // Act
+        cache.invalidate(7);
+
+        // Assert
+        assertNull(cache.get(7));
+    }
+
+    // Test that a status read before an invalidation is not stored afterwards
+    @Test
+    void testPut_StampTakenBeforeInvalidation_IsIgnored() {
+        // Arrange - a read starts, then the member is deactivated
+        MemberStatusCache cache = new MemberStatusCache(100, 60_000);
+        long stamp = cache.stamp();
+        cache.invalidate(7);
+
+        // Act - the read finishes with the old status
+        cache.put(7, true, stamp);
+
+        // Assert
+        assertNull(cache.get(7));
+    }
+
+    // Test that many members, with removals in between, are all still found (probing and backward shifts)
+    @Test
+    void testPutAndInvalidate_ManyMembers_KeepsTheOthers() {
+        // Arrange
+        MemberStatusCache cache = new MemberStatusCache(10_000, 60_000);
+        for (int id = 1; id <= 5000; id++) {
+            cache.put(id, id % 2 == 0, cache.stamp());
+        }
+
+        // Act - forget every third member
+        for (int id = 3; id <= 5000; id += 3) {
+            cache.invalidate(id);
+        }
+
+        // Assert
+        for (int id = 1; id <= 5000; id++) {
+            Boolean expected = id % 3 == 0 ? null : id % 2 == 0;
+            assertEquals(expected, cache.get(id), "member " + id);
+        }
+    }
+
+    // Test that a full cache keeps what it holds instead of starting over
+    @Test
+    void testPut_FullCache_KeepsCachedMembers() {
+        // Arrange
+        MemberStatusCache cache = new MemberStatusCache(16, 60_000);
+        for (int id = 1; id <= 16; id++) {
+            cache.put(id, true, cache.stamp());
+        }
+
+        // Act
+        cache.put(17, true, cache.stamp());
+
+        // Assert
+        assertEquals(16, cache.size());
+        assertEquals(Boolean.TRUE, cache.get(1));
+        assertNull(cache.get(17));
+    }
+
+    // Test that a TTL of zero turns the cache off
+    @Test
+    void testPut_ZeroTtl_StoresNothing() {
+        // Arrange
+        MemberStatusCache cache = new MemberStatusCache(100, 0);
+
+        // Act
+        cache.put(7, true, cache.stamp());
+
+        // Assert
+        assertNull(cache.get(7));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,54 @@
+package util;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The statements are stand-ins, so these tests run without a database
+public class QueryCancellerTest {
+    // Test that a search cancelled before it starts never reaches the database
+    @Test
+    void testAttach_CancelledBeforeStart_StatementIsRefused() {
+        // Arrange - a search the user has already typed past, and a statement that records any cancel
+        CountDownLatch statementCancelled = new CountDownLatch(1);
+        Statement statement = recordingStatement(statementCancelled);
+        QueryCanceller canceller = new QueryCanceller();
+        canceller.cancel();
+
+        // Act & Assert - the DAO's attach fails, so the query is never executed
+        assertThrows(SQLException.class, () -> canceller.attach(statement));
+        assertTrue(canceller.isCancelled());
+        assertEquals(1, statementCancelled.getCount());
+    }
+
+    // Test that cancelling a running search stops its statement, off the calling thread
+    @Test
+    void testCancel_WhileRunning_CancelsStatement() throws Exception {
+        // Arrange - a statement that is executing
+        CountDownLatch statementCancelled = new CountDownLatch(1);
+        QueryCanceller canceller = new QueryCanceller();
+        canceller.attach(recordingStatement(statementCancelled));
+
+        // Act - the user types past the search
+        canceller.cancel();
+
+        // Assert - the statement is cancelled in the background
+        assertTrue(statementCancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(canceller.isCancelled());
+    }
+
+    // A Statement that only counts down the latch when cancelled
+    private static Statement recordingStatement(CountDownLatch cancelled) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {Statement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("cancel")) {
+                        cancelled.countDown();
+                    }
+                    return null;
+                });
+    }
+}